@@ -0,0 +1,9 @@
+#!/usr/bin/env bash
+# Microbenchmark JMH del limitador de peticiones (RateLimiterBenchmark, en src/test).
+# Uso: scripts/rate-limit-benchmark.sh [argumentos de JMH, p. ej. -prof gc]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+java -cp "target/test-classes:target/classes:$(cat target/test-classpath.txt)" \
+  org.openjdk.jmh.Main RateLimiterBenchmark "$@"
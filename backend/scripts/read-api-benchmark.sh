@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Compara las lecturas bloqueantes (/api/tasks) con las reactivas (/api/v2/tasks) con mucha
+# concurrencia contra una instancia ya levantada. Para que se note la diferencia conviene
+# limitar el pool de Tomcat por debajo de la concurrencia, p. ej.:
+#
+#   java -Dserver.tomcat.threads.max=32 -Dapplication.rate-limit.enabled=false -jar target/backend-0.0.1-SNAPSHOT.jar
+#   scripts/read-api-benchmark.sh [concurrencia] [peticiones]
+#
+# Usa hey (https://github.com/rakyll/hey) si está instalado; si no, curl en paralelo con xargs.
+# Variables: PORT (8080), BENCH_USER, BENCH_PASSWORD, BENCH_TASKS (200)
+set -euo pipefail
+
+CONCURRENCY="${1:-200}"
+REQUESTS="${2:-5000}"
+PORT="${PORT:-8080}"
+BASE="http://localhost:${PORT}/api"
+BENCH_USER="${BENCH_USER:-readbench}"
+BENCH_PASSWORD="${BENCH_PASSWORD:-readbench123}"
+BENCH_TASKS="${BENCH_TASKS:-200}"
+
+curl -s -o /dev/null -H 'Content-Type: application/json' \
+  -d "{\"username\":\"${BENCH_USER}\",\"email\":\"${BENCH_USER}@bench.local\",\"password\":\"${BENCH_PASSWORD}\",\"confirmPassword\":\"${BENCH_PASSWORD}\"}" \
+  "${BASE}/auth/register" || true
+TOKEN=$(curl -s -H 'Content-Type: application/json' \
+  -d "{\"username\":\"${BENCH_USER}\",\"password\":\"${BENCH_PASSWORD}\"}" \
+  "${BASE}/auth/login" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+if [[ -z "${TOKEN}" ]]; then
+  echo "No se pudo obtener un token; ¿está la aplicación en el puerto ${PORT}?" >&2
+  exit 1
+fi
+
+existing=$(curl -s -H "Authorization: Bearer ${TOKEN}" "${BASE}/tasks/stats" | sed -n 's/.*"totalTasks":\([0-9]*\).*/\1/p')
+for i in $(seq $(( ${existing:-0} + 1 )) "${BENCH_TASKS}"); do
+  curl -s -o /dev/null -H "Authorization: Bearer ${TOKEN}" -H 'Content-Type: application/json' \
+    -d "{\"title\":\"Tarea ${i}\",\"description\":\"benchmark de lectura ${i}\",\"priority\":\"MEDIUM\"}" \
+    "${BASE}/tasks"
+done
+
+run() {
+  local label="$1" url="$2"
+  if command -v hey > /dev/null; then
+    echo "== ${label}"
+    hey -n "${REQUESTS}" -c "${CONCURRENCY}" -H "Authorization: Bearer ${TOKEN}" "${url}" \
+      | grep -E 'Requests/sec|Average|Slowest|50%|99%|\[2|\[4|\[5'
+    return
+  fi
+  local out="${TMPDIR:-/tmp}/read-api-benchmark.times"
+  local started ended
+  started=$(date +%s%3N)
+  seq "${REQUESTS}" | xargs -P "${CONCURRENCY}" -I{} \
+    curl -s -o /dev/null -w '%{http_code} %{time_total}\n' -H "Authorization: Bearer ${TOKEN}" "${url}" > "${out}"
+  ended=$(date +%s%3N)
+  echo "== ${label}"
+  awk -v ms=$(( ended - started )) '
+    { codes[$1]++; t[NR] = $2 * 1000 }
+    END {
+      n = asort(t)
+      printf "  req/s:  %.1f\n", NR / (ms / 1000)
+      printf "  p50:    %.1f ms\n  p99:    %.1f ms\n  max:    %.1f ms\n", t[int(n * 0.5)], t[int(n * 0.99)], t[n]
+      for (c in codes) printf "  status %s: %d\n", c, codes[c]
+    }' "${out}"
+}
+
+for endpoint in "" "/stats" "/search?query=benchmark"; do
+  run "blocking  /api/tasks${endpoint}" "${BASE}/tasks${endpoint}"
+  run "reactive  /api/v2/tasks${endpoint}" "${BASE}/v2/tasks${endpoint}"
+done
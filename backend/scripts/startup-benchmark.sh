@@ -0,0 +1,92 @@
+#!/usr/bin/env bash
+# Mide el tiempo hasta la primera respuesta 200 de GET /api/tasks, desde que se lanza el proceso.
+# Requiere MySQL accesible (docker compose up -d mysql) y el jar construido.
+#
+#   scripts/startup-benchmark.sh [runs] -- [argumentos de java]
+#
+# Ejemplos:
+#   scripts/startup-benchmark.sh 5
+#   scripts/startup-benchmark.sh 5 -- -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=faststart
+#
+# Variables: JAR (target/backend-0.0.1-SNAPSHOT.jar), PORT (8080), BENCH_USER, BENCH_PASSWORD
+set -euo pipefail
+
+RUNS="${1:-5}"
+shift || true
+[[ "${1:-}" == "--" ]] && shift
+JAVA_ARGS=("$@")
+
+JAR="${JAR:-target/backend-0.0.1-SNAPSHOT.jar}"
+PORT="${PORT:-8080}"
+BASE="http://localhost:${PORT}/api"
+BENCH_USER="${BENCH_USER:-startupbench}"
+BENCH_PASSWORD="${BENCH_PASSWORD:-startupbench123}"
+TIMEOUT_S=120
+LOG="${TMPDIR:-/tmp}/startup-benchmark.log"
+
+now_ms() { date +%s%3N; }
+
+start_app() {
+  java "${JAVA_ARGS[@]}" -Dserver.port="${PORT}" -jar "${JAR}" > "${LOG}" 2>&1 &
+  APP_PID=$!
+}
+
+stop_app() {
+  kill "${APP_PID}" 2>/dev/null || true
+  wait "${APP_PID}" 2>/dev/null || true
+}
+trap stop_app EXIT
+
+wait_for() {
+  local url="$1" started="$2"
+  shift 2
+  while true; do
+    local code
+    code=$(curl -s -o /dev/null -w '%{http_code}' "$@" "${url}" || true)
+    [[ "${code}" == "200" ]] && return 0
+    if ! kill -0 "${APP_PID}" 2>/dev/null; then
+      echo "La aplicación terminó antes de responder; ver ${LOG}" >&2
+      exit 1
+    fi
+    if (( $(now_ms) - started > TIMEOUT_S * 1000 )); then
+      echo "Sin respuesta 200 tras ${TIMEOUT_S}s" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+}
+
+# El token se obtiene una vez: el secreto JWT es estable entre reinicios
+echo "Preparando usuario de prueba..."
+start_app
+wait_for "${BASE}/test/public" "$(now_ms)"
+curl -s -o /dev/null -H 'Content-Type: application/json' \
+  -d "{\"username\":\"${BENCH_USER}\",\"email\":\"${BENCH_USER}@bench.local\",\"password\":\"${BENCH_PASSWORD}\",\"confirmPassword\":\"${BENCH_PASSWORD}\"}" \
+  "${BASE}/auth/register" || true
+TOKEN=$(curl -s -H 'Content-Type: application/json' \
+  -d "{\"username\":\"${BENCH_USER}\",\"password\":\"${BENCH_PASSWORD}\"}" \
+  "${BASE}/auth/login" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+stop_app
+if [[ -z "${TOKEN}" ]]; then
+  echo "No se pudo obtener un token" >&2
+  exit 1
+fi
+
+results=()
+for i in $(seq 1 "${RUNS}"); do
+  started=$(now_ms)
+  start_app
+  wait_for "${BASE}/tasks" "${started}" -H "Authorization: Bearer ${TOKEN}"
+  elapsed=$(( $(now_ms) - started ))
+  results+=("${elapsed}")
+  echo "run ${i}: ${elapsed} ms"
+  stop_app
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+count=${#sorted[@]}
+echo "----"
+echo "args:   ${JAVA_ARGS[*]:-(ninguno)}"
+echo "min:    ${sorted[0]} ms"
+echo "median: ${sorted[$(( count / 2 ))]} ms"
+echo "max:    ${sorted[$(( count - 1 ))]} ms"
@@ -0,0 +1,88 @@
+package com.gestion.backend.config;
+
+import com.gestion.backend.service.ConcurrencyLimiter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Descarta con 503 lo que no cabe en el límite adaptativo antes de que llegue a los
+// controladores y se quede esperando una conexión de Hikari. La latencia y los 5xx de
+// cada petición admitida realimentan el límite.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/") || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConcurrencyLimiter.Priority priority = priorityOf(request);
+        if (!concurrencyLimiter.tryAcquire(priority)) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server overloaded, retry shortly");
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                // Las lecturas reactivas (/api/v2) siguen en vuelo hasta que se completan
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        concurrencyLimiter.release(priority, System.nanoTime() - started, isFailure(response));
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                concurrencyLimiter.release(priority, System.nanoTime() - started, failed || isFailure(response));
+            }
+        }
+    }
+
+    // Los 503 propios (cola de BCrypt llena, usuario moviéndose de shard) no indican que la base se resienta
+    private boolean isFailure(HttpServletResponse response) {
+        return response.getStatus() >= 500 && response.getStatus() != HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+
+    private ConcurrencyLimiter.Priority priorityOf(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/auth/")) {
+            return ConcurrencyLimiter.Priority.AUTH;
+        }
+        String method = request.getMethod();
+        // GraphQL solo expone consultas: cuenta como lectura aunque llegue por POST
+        return "GET".equals(method) || "HEAD".equals(method) || request.getRequestURI().equals("/api/graphql")
+                ? ConcurrencyLimiter.Priority.READ
+                : ConcurrencyLimiter.Priority.WRITE;
+    }
+}
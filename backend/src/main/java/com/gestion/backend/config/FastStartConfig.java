@@ -0,0 +1,39 @@
+package com.gestion.backend.config;
+
+import com.gestion.backend.service.AdminAnalyticsService;
+import com.gestion.backend.service.InventoryFacetCache;
+import com.gestion.backend.service.InventoryLedgerService;
+import com.gestion.backend.service.InvalidationBus;
+import com.gestion.backend.service.InventoryReservationSweeper;
+import com.gestion.backend.service.JdbcInvalidationTransport;
+import com.gestion.backend.service.RateLimiter;
+import com.gestion.backend.service.RefreshTokenService;
+import com.gestion.backend.service.ShardRouter;
+import com.gestion.backend.service.TaskArchiver;
+import com.gestion.backend.service.TaskTagIndex;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FastStartConfig {
+
+    // Con spring.main.lazy-initialization=true un bean perezoso nunca registra sus @Scheduled
+    // ni sus cargas iniciales: estos se crean siempre al arrancar
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBackgroundBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+            InventoryLedgerService.class,
+            InventoryReservationSweeper.class,
+            InventoryFacetCache.class,
+            TaskArchiver.class,
+            TaskTagIndex.class,
+            AdminAnalyticsService.class,
+            ShardRouter.class,
+            ShardSchemaInitializer.class,
+            InvalidationBus.class,
+            JdbcInvalidationTransport.class,
+            RefreshTokenService.class,
+            RateLimiter.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.gestion.backend.config;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Límites de coste para /api/graphql: una consulta demasiado profunda o cara se rechaza
+// antes de ejecutarse. Cada campo cuesta 1; un campo lista multiplica el coste de lo que
+// pide por lo que puede devolver: su argumento "first" acotado igual que en el resolver,
+// el tope fijo de las reservas de cada tarea o, si no tiene ninguno, list-cost. La
+// introspección no cuenta.
+@Configuration
+public class GraphQlConfig {
+
+    // Topes que aplica TaskGraphQlController; el coste se calcula con los mismos
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_RESERVATIONS_PER_TASK = 20;
+
+    @Value("${application.graphql.max-depth:8}")
+    private int maxDepth;
+
+    @Value("${application.graphql.max-complexity:5000}")
+    private int maxComplexity;
+
+    @Value("${application.graphql.list-cost:10}")
+    private int listCost;
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation() {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation() {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, (environment, childComplexity) -> {
+            if (environment.getField().getName().startsWith("__")
+                    || GraphQLTypeUtil.simplePrint(environment.getParentType()).startsWith("__")) {
+                return 0;
+            }
+            if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType()))) {
+                return 1 + childComplexity;
+            }
+            Object first = environment.getArguments().get("first");
+            int size;
+            if (first instanceof Integer requested) {
+                size = clampPageSize(requested);
+            } else if ("reservations".equals(environment.getField().getName())
+                    && "Task".equals(GraphQLTypeUtil.simplePrint(environment.getParentType()))) {
+                size = MAX_RESERVATIONS_PER_TASK;
+            } else {
+                size = listCost;
+            }
+            return 1 + size * Math.max(1, childComplexity);
+        });
+    }
+
+    // Un first negativo o cero pide una página de uno, nunca "sin límite"
+    public static int clampPageSize(int first) {
+        return Math.max(1, Math.min(first, MAX_PAGE_SIZE));
+    }
+}
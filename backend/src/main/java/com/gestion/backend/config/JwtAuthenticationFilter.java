@@ -1,8 +1,13 @@
 package com.gestion.backend.config;
 
+import com.gestion.backend.entity.User;
 import com.gestion.backend.service.JwtService;
+import com.gestion.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +31,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
     
     @Override
     protected void doFilterInternal(
@@ -38,24 +44,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt;
         final String username;
         
-        logger.debug("Processing request to: {} with Authorization header: {}", 
-                    request.getRequestURI(), authHeader != null ? "Present" : "Missing");
-        
+        // Los DEBUG de este filtro solo se emiten en peticiones muestreadas (ver RequestLoggingFilter)
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            logger.debug("No valid Authorization header found");
             filterChain.doFilter(request, response);
             return;
         }
         
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
-        
-        logger.debug("Extracted username from token: {}", username);
+        // Firma y expiración se verifican una sola vez; un token inválido deja la petición sin autenticar
+        final Claims claims;
+        try {
+            claims = jwtService.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected token: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        username = claims.getSubject();
         
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
             
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)
+                    && !tokenRevocationService.isRevoked(claims, jwt, (User) userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -65,7 +76,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                logger.debug("Successfully authenticated user: {}", username);
+                MDC.put(RequestLoggingFilter.MDC_USER, username);
+                logger.debug("Authenticated user: {}", username);
             } else {
                 logger.debug("Token validation failed for user: {}", username);
             }
@@ -0,0 +1,41 @@
+package com.gestion.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+// Con R2DBC en el classpath Spring Boot deja de configurar el DataSource JDBC (se aparta en
+// cuanto existe un ConnectionFactory) y el JpaTransactionManager compite con el reactivo.
+// JPA sigue siendo el acceso principal: ambos se declaran aquí de forma explícita.
+@Configuration
+public class PersistenceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    // Con sharding activo el DataSource principal es el enrutado de ShardingConfig
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "application.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // @Transactional en métodos bloqueantes usa este; las lecturas reactivas no abren transacción
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,62 @@
+package com.gestion.backend.config;
+
+import com.gestion.backend.service.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Limita cada usuario autenticado (o cada IP si no lo está) por grupo de rutas. Va detrás del
+// filtro JWT para conocer al usuario; /api/auth se limita siempre por IP. La IP es la del
+// cliente real: Tomcat la resuelve de X-Forwarded-For si la conexión viene de un proxy de
+// confianza (server.tomcat.remoteip.internal-proxies), nunca la que envíe el cliente.
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/") || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimiter.Group group = groupOf(request);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String key = group != RateLimiter.Group.AUTH && authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)
+                ? "u:" + authentication.getName()
+                : "ip:" + request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(group, key);
+        if (waitNanos > 0) {
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L)));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded, retry later");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimiter.Group groupOf(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/auth/")) {
+            return RateLimiter.Group.AUTH;
+        }
+        String method = request.getMethod();
+        // GraphQL solo expone consultas: cuenta como lectura aunque llegue por POST
+        return "GET".equals(method) || "HEAD".equals(method) || request.getRequestURI().equals("/api/graphql")
+                ? RateLimiter.Group.READ
+                : RateLimiter.Group.WRITE;
+    }
+}
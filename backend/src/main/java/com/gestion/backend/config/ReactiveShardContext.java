@@ -0,0 +1,17 @@
+package com.gestion.backend.config;
+
+import reactor.util.context.Context;
+
+// Equivalente de ShardContext para cadenas reactivas: se fija con contextWrite al final
+// de la cadena y la ConnectionFactory enrutada lo lee al pedir la conexión.
+public final class ReactiveShardContext {
+
+    public static final String KEY = ReactiveShardContext.class.getName();
+
+    private ReactiveShardContext() {
+    }
+
+    public static Context with(String shard) {
+        return Context.of(KEY, shard);
+    }
+}
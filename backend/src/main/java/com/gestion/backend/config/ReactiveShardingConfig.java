@@ -0,0 +1,63 @@
+package com.gestion.backend.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Versión reactiva del enrutado por shard: el shard viaja en el Context de Reactor
+// (ReactiveShardContext) en vez de en un ThreadLocal. spring.r2dbc.* es la base global.
+@Configuration
+@ConditionalOnProperty(name = "application.sharding.enabled", havingValue = "true")
+public class ReactiveShardingConfig {
+
+    @Bean
+    @Primary
+    public ConnectionFactory connectionFactory(R2dbcProperties globalProperties,
+                                               Environment environment,
+                                               @Value("${application.sharding.default-shard:primary}") String defaultShard) {
+        ConnectionFactory global = ConnectionFactoryBuilder.withUrl(globalProperties.getUrl())
+            .username(globalProperties.getUsername())
+            .password(globalProperties.getPassword())
+            .build();
+
+        Map<String, ShardProperties> shards = Binder.get(environment)
+            .bind("application.sharding.shards", Bindable.mapOf(String.class, ShardProperties.class))
+            .orElse(Map.of());
+        Map<String, ConnectionFactory> targets = new HashMap<>();
+        targets.put(defaultShard, global);
+        for (Map.Entry<String, ShardProperties> entry : shards.entrySet()) {
+            ShardProperties properties = entry.getValue();
+            if (properties.getR2dbcUrl() == null) {
+                throw new IllegalStateException("Shard '" + entry.getKey() + "' has no r2dbc-url");
+            }
+            targets.put(entry.getKey(), ConnectionFactoryBuilder.withUrl(properties.getR2dbcUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build());
+        }
+
+        AbstractRoutingConnectionFactory routing = new AbstractRoutingConnectionFactory() {
+            @Override
+            protected Mono<Object> determineCurrentLookupKey() {
+                return Mono.deferContextual(context -> Mono.justOrEmpty(context.<Object>getOrEmpty(ReactiveShardContext.KEY)));
+            }
+        };
+        routing.setTargetConnectionFactories(targets);
+        routing.setDefaultTargetConnectionFactory(global);
+        routing.setLenientFallback(false);
+        return routing;
+    }
+}
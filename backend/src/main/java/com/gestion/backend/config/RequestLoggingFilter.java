@@ -0,0 +1,126 @@
+package com.gestion.backend.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+// Primer filtro de la cadena: asigna el id de correlación, decide si la petición se muestrea
+// y escribe la línea de acceso al terminar. Los datos van al MDC, y logback-spring.xml
+// deja pasar DEBUG solo cuando sampled=true; la escritura la hace el appender asíncrono,
+// fuera del hilo de la petición.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String MDC_REQUEST_ID = "requestId";
+    public static final String MDC_SAMPLED = "sampled";
+    public static final String MDC_USER = "user";
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("access");
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Value("${application.logging.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Value("${application.logging.slow-request-ms:1000}")
+    private long slowRequestMillis;
+
+    @Value("${application.logging.access-log:true}")
+    private boolean accessLog;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        long started = System.nanoTime();
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || !VALID_REQUEST_ID.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+
+        MDC.put(MDC_REQUEST_ID, requestId);
+        if (sampled) {
+            MDC.put(MDC_SAMPLED, "true");
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        try {
+            if (sampled) {
+                accessLogger.debug("--> {} {}{} auth={} ua=\"{}\"", request.getMethod(), request.getRequestURI(),
+                    request.getQueryString() != null ? "?" + request.getQueryString() : "",
+                    request.getHeader("Authorization") != null ? "bearer" : "none",
+                    request.getHeader("User-Agent"));
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            String user = MDC.get(MDC_USER);
+            if (request.isAsyncStarted()) {
+                // Las lecturas reactivas (/api/v2) terminan en otro hilo: se registra al completarse
+                String asyncRequestId = requestId;
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        MDC.put(MDC_REQUEST_ID, asyncRequestId);
+                        try {
+                            logCompletion(request, response, started, sampled, user);
+                        } finally {
+                            MDC.remove(MDC_REQUEST_ID);
+                        }
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                logCompletion(request, response, started, sampled, user);
+            }
+            MDC.remove(MDC_REQUEST_ID);
+            MDC.remove(MDC_SAMPLED);
+            MDC.remove(MDC_USER);
+        }
+    }
+
+    private void logCompletion(HttpServletRequest request, HttpServletResponse response, long started,
+                               boolean sampled, String user) {
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        if (elapsedMillis >= slowRequestMillis) {
+            accessLogger.warn("SLOW {} {}{} status={} user={} time={}ms sampled={}", request.getMethod(),
+                request.getRequestURI(), request.getQueryString() != null ? "?" + request.getQueryString() : "",
+                response.getStatus(), user != null ? user : "-", elapsedMillis, sampled);
+        } else if (accessLog) {
+            accessLogger.info("{} {} status={} user={} time={}ms", request.getMethod(), request.getRequestURI(),
+                response.getStatus(), user != null ? user : "-", elapsedMillis);
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.gestion.backend.config;
 
+import com.gestion.backend.service.ConcurrencyLimiter;
+import com.gestion.backend.service.RateLimiter;
+import com.gestion.backend.service.ShardRouter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,8 +16,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -29,6 +34,23 @@ public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final ShardRouter shardRouter;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    @Value("${application.sharding.move.retry-after-seconds:5}")
+    private long moveRetryAfterSeconds;
+
+    @Value("${application.security.password.bcrypt-cost:10}")
+    private int bcryptCost;
+
+    // 0 = la mitad de los núcleos: el resto queda para el tráfico normal
+    @Value("${application.security.password.hashing-threads:0}")
+    private int hashingThreads;
+
+    @Value("${application.security.password.queue-capacity:64}")
+    private int hashingQueueCapacity;
     
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -36,10 +58,14 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // El despacho asíncrono de /api/v2 ya se autorizó en el despacho original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/test/public").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
+                        // Sondas de liveness/readiness del orquestador
+                        .requestMatchers("/actuator/health/**").permitAll()
                         // Endpoints que requieren rol ADMIN
                         .requestMatchers("/api/test/admin").hasRole("ADMIN")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -49,6 +75,18 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+
+        // No son @Component para que el contenedor de servlets no los registre fuera de la cadena;
+        // se ejecutan en el orden en que se añaden: límite por usuario, límite global adaptativo y enrutado a shards
+        if (rateLimiter.isEnabled()) {
+            http.addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthenticationFilter.class);
+        }
+        if (concurrencyLimiter.isEnabled()) {
+            http.addFilterAfter(new ConcurrencyLimitFilter(concurrencyLimiter), JwtAuthenticationFilter.class);
+        }
+        if (shardRouter.isEnabled()) {
+            http.addFilterAfter(new ShardRoutingFilter(shardRouter, moveRetryAfterSeconds), JwtAuthenticationFilter.class);
+        }
         
         return http.build();
     }
@@ -64,7 +102,7 @@ public class SecurityConfig {
         ));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(List.of("Authorization", "Content-Type", "ETag", "X-Request-Id"));
         configuration.setMaxAge(3600L);
         configuration.setAllowCredentials(true);
         
@@ -78,6 +116,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehash transparente al coste configurado tras un login correcto
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
     
@@ -88,6 +128,7 @@ public class SecurityConfig {
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(bcryptCost, threads, hashingQueueCapacity);
     }
 }
@@ -0,0 +1,28 @@
+package com.gestion.backend.config;
+
+// Shard al que se dirigen las conexiones del hilo actual. Null significa la base de datos
+// global (usuarios, inventario, agregados). Se fija antes de abrir la transacción:
+// una vez abierta, la conexión ya no cambia.
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void set(String shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,54 @@
+package com.gestion.backend.config;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+// DataSources físicos por nombre de shard. El shard por defecto es la base global.
+public class ShardDataSources implements Closeable {
+
+    private final String defaultShard;
+    private final Map<String, DataSource> dataSources;
+    private final Map<String, Long> idOffsets;
+
+    public ShardDataSources(String defaultShard, Map<String, DataSource> dataSources, Map<String, Long> idOffsets) {
+        this.defaultShard = defaultShard;
+        this.dataSources = Collections.unmodifiableMap(dataSources);
+        this.idOffsets = Collections.unmodifiableMap(idOffsets);
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    public DataSource getGlobal() {
+        return dataSources.get(defaultShard);
+    }
+
+    public DataSource get(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    public Map<String, DataSource> getAll() {
+        return dataSources;
+    }
+
+    public Map<String, Long> getIdOffsets() {
+        return idOffsets;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : dataSources.values()) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.gestion.backend.config;
+
+import lombok.Data;
+
+// Conexión de un shard (application.sharding.shards.<nombre>.*)
+@Data
+public class ShardProperties {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+
+    // Misma base para la API reactiva (/api/v2), p. ej. r2dbc:mysql://host:3306/db
+    private String r2dbcUrl;
+
+    // Inicio del rango de ids de tareas del shard, para que una tarea conserve su id al mover
+    // al usuario a otro shard. Por defecto (posición del shard por nombre + 1) * 10^12.
+    private Long idOffset;
+}
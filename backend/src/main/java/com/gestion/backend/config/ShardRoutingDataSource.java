@@ -0,0 +1,12 @@
+package com.gestion.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// DataSource principal cuando el sharding está activo: sin shard en contexto va a la base global
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,69 @@
+package com.gestion.backend.config;
+
+import com.gestion.backend.entity.User;
+import com.gestion.backend.service.ShardRouter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Dirige las peticiones de tareas al shard del usuario autenticado. Va detrás del filtro
+// JWT para que la carga del usuario siga leyendo de la base global. Mientras el usuario
+// se está moviendo de shard solo se aceptan lecturas, y si este nodo no ha podido refrescar
+// las asignaciones no se acepta nada: podría enrutar a un shard ya purgado.
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    private final ShardRouter shardRouter;
+    private final long retryAfterSeconds;
+
+    public ShardRoutingFilter(ShardRouter shardRouter, long retryAfterSeconds) {
+        this.shardRouter = shardRouter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/tasks");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (shardRouter.isStale()) {
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Shard assignments are out of date, retry shortly");
+            return;
+        }
+
+        ShardRouter.Assignment assignment = shardRouter.assignmentOf(user.getId());
+        if (assignment.moving() && !isReadOnly(request)) {
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "User data is being moved, retry shortly");
+            return;
+        }
+
+        ShardContext.set(assignment.shard());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    private boolean isReadOnly(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
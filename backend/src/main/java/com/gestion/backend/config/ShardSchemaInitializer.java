@@ -0,0 +1,120 @@
+package com.gestion.backend.config;
+
+import com.gestion.backend.entity.ArchivedTask;
+import com.gestion.backend.entity.CacheInvalidation;
+import com.gestion.backend.entity.ShardFence;
+import com.gestion.backend.entity.Task;
+import com.gestion.backend.entity.TaskDailyStat;
+import com.gestion.backend.entity.TaskHistorySeed;
+import com.gestion.backend.entity.TaskLeadTimeBucket;
+import com.gestion.backend.entity.TaskRollup;
+import com.gestion.backend.entity.User;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.hbm2ddl.SchemaValidator;
+import org.hibernate.tool.schema.TargetType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+// Hibernate solo gestiona el esquema de la base global (la conexión por defecto del
+// DataSource enrutado). Este componente aplica el mismo modo ddl-auto a las tablas
+// que viven en cada shard y coloca el contador de ids de tareas al inicio de su rango.
+@Component
+@ConditionalOnProperty(name = "application.sharding.enabled", havingValue = "true")
+public class ShardSchemaInitializer implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    // Lo que se lee y escribe dentro de una transacción de TaskService
+    private static final List<Class<?>> SHARDED_ENTITIES = List.of(
+        User.class, Task.class, ArchivedTask.class, TaskDailyStat.class, TaskHistorySeed.class,
+        TaskRollup.class, TaskLeadTimeBucket.class, ShardFence.class, CacheInvalidation.class);
+
+    private final ShardDataSources shardDataSources;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    @Value("${spring.jpa.properties.hibernate.dialect:}")
+    private String dialect;
+
+    public ShardSchemaInitializer(ShardDataSources shardDataSources) {
+        this.shardDataSources = shardDataSources;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        for (Map.Entry<String, DataSource> shard : shardDataSources.getAll().entrySet()) {
+            if (shard.getKey().equals(shardDataSources.getDefaultShard())) {
+                continue;
+            }
+            applySchema(shard.getKey(), shard.getValue());
+            applyIdOffset(shard.getKey(), shard.getValue(), shardDataSources.getIdOffsets().get(shard.getKey()));
+        }
+    }
+
+    private void applySchema(String shard, DataSource dataSource) {
+        if (!"update".equals(ddlAuto) && !"validate".equals(ddlAuto) && !ddlAuto.startsWith("create")) {
+            return;
+        }
+        StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder()
+            .applySetting(AvailableSettings.DATASOURCE, dataSource);
+        if (!dialect.isBlank()) {
+            builder.applySetting(AvailableSettings.DIALECT, dialect);
+        }
+        StandardServiceRegistry registry = builder.build();
+        try {
+            MetadataSources sources = new MetadataSources(registry);
+            SHARDED_ENTITIES.forEach(sources::addAnnotatedClass);
+            Metadata metadata = sources.getMetadataBuilder()
+                .applyPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                .applyImplicitNamingStrategy(new SpringImplicitNamingStrategy())
+                .build();
+            if ("validate".equals(ddlAuto)) {
+                new SchemaValidator().validate(metadata, registry);
+            } else {
+                new SchemaUpdate().execute(EnumSet.of(TargetType.DATABASE), metadata, registry);
+            }
+            logger.info("Schema {} applied to shard {}", ddlAuto, shard);
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    // Solo avanza el contador si el shard aún no tiene ids dentro de su rango
+    private void applyIdOffset(String shard, DataSource dataSource, long offset) throws SQLException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM tasks", Long.class);
+        if (maxId != null && maxId >= offset) {
+            return;
+        }
+        String product;
+        try (Connection connection = dataSource.getConnection()) {
+            product = connection.getMetaData().getDatabaseProductName();
+        }
+        if ("H2".equalsIgnoreCase(product)) {
+            jdbcTemplate.execute("ALTER TABLE tasks ALTER COLUMN id RESTART WITH " + offset);
+        } else {
+            jdbcTemplate.execute("ALTER TABLE tasks AUTO_INCREMENT = " + offset);
+        }
+        logger.info("Task ids on shard {} start at {}", shard, offset);
+    }
+}
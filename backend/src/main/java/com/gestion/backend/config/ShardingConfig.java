@@ -0,0 +1,71 @@
+package com.gestion.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Sharding de tareas por usuario. spring.datasource.* sigue siendo la base global y además
+// el shard por defecto; application.sharding.shards.<nombre>.* declara los demás.
+// Sin application.sharding.enabled=true no se define nada y la aplicación usa una sola base.
+@Configuration
+@ConditionalOnProperty(name = "application.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final long ID_RANGE = 1_000_000_000_000L;
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties globalProperties,
+                                             Environment environment,
+                                             @Value("${application.sharding.default-shard:primary}") String defaultShard) {
+        Map<String, ShardProperties> shards = new TreeMap<>(Binder.get(environment)
+            .bind("application.sharding.shards", Bindable.mapOf(String.class, ShardProperties.class))
+            .orElse(Map.of()));
+
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        Map<String, Long> idOffsets = new LinkedHashMap<>();
+        dataSources.put(defaultShard, globalProperties.initializeDataSourceBuilder().build());
+        idOffsets.put(defaultShard, 0L);
+
+        long position = 1;
+        for (Map.Entry<String, ShardProperties> entry : shards.entrySet()) {
+            String name = entry.getKey();
+            ShardProperties properties = entry.getValue();
+            if (name.equals(defaultShard)) {
+                throw new IllegalStateException("Shard '" + name + "' clashes with the default shard name");
+            }
+            dataSources.put(name, DataSourceBuilder.create()
+                .url(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .driverClassName(properties.getDriverClassName())
+                .build());
+            idOffsets.put(name, properties.getIdOffset() != null ? properties.getIdOffset() : position * ID_RANGE);
+            position++;
+        }
+        return new ShardDataSources(defaultShard, dataSources, idOffsets);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(new HashMap<>(shardDataSources.getAll()));
+        routing.setDefaultTargetDataSource(shardDataSources.getGlobal());
+        // Un nombre de shard desconocido es un error, nunca una caída silenciosa a la base global
+        routing.setLenientFallback(false);
+        return routing;
+    }
+}
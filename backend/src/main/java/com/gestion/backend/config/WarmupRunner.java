@@ -0,0 +1,153 @@
+package com.gestion.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gestion.backend.dto.TaskRequest;
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.dto.TaskStatsResponse;
+import com.gestion.backend.dto.TaskUpdateRequest;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.repository.UserRepository;
+import com.gestion.backend.service.JwtService;
+import com.gestion.backend.service.TaskService;
+import com.gestion.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Calentamiento del JIT antes de aceptar tráfico. Los ApplicationRunner terminan antes de
+// que la aplicación publique ReadinessState.ACCEPTING_TRAFFIC, así que /actuator/health/readiness
+// no pasa a UP hasta que esto acaba. Cada iteración recorre los caminos calientes (JWT,
+// lecturas y escrituras de TaskService, serialización de TaskResponse) con un usuario
+// sintético dentro de una transacción que siempre se revierte.
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final JwtService jwtService;
+    private final TaskService taskService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.warmup.iterations:300}")
+    private int iterations;
+
+    @Value("${application.warmup.max-duration-ms:20000}")
+    private long maxDurationMillis;
+
+    public WarmupRunner(JwtService jwtService,
+                        TaskService taskService,
+                        TokenRevocationService tokenRevocationService,
+                        UserRepository userRepository,
+                        ObjectMapper objectMapper,
+                        PlatformTransactionManager transactionManager) {
+        this.jwtService = jwtService;
+        this.taskService = taskService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        long deadline = started + maxDurationMillis * 1_000_000L;
+        long firstIterationNanos = 0;
+        long lastIterationNanos = 0;
+        int completed = 0;
+
+        try {
+            while (completed < iterations && System.nanoTime() < deadline) {
+                long iterationStart = System.nanoTime();
+                transactionTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    exercise();
+                });
+                lastIterationNanos = System.nanoTime() - iterationStart;
+                if (completed == 0) {
+                    firstIterationNanos = lastIterationNanos;
+                }
+                completed++;
+            }
+        } catch (RuntimeException e) {
+            // El calentamiento nunca debe impedir el arranque
+            logger.warn("Warm-up aborted after {} iterations", completed, e);
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Warm-up finished: {} iterations in {} ms (first {} µs, last {} µs){}",
+            completed, elapsedMillis, firstIterationNanos / 1_000, lastIterationNanos / 1_000,
+            completed < iterations ? " - stopped by time budget" : "");
+    }
+
+    private void exercise() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("warmup-" + suffix);
+        user.setEmail("warmup-" + suffix + "@warmup.local");
+        // Nunca se confirma, así que no hace falta un hash real
+        user.setPassword("warmup-password");
+        userRepository.saveAndFlush(user);
+
+        String token = jwtService.generateToken(user);
+        // Mismo camino que JwtAuthenticationFilter
+        Claims claims = jwtService.parseToken(token);
+        if (!jwtService.isTokenValid(claims, user) || tokenRevocationService.isRevoked(claims, token, user)) {
+            throw new IllegalStateException("Warm-up token failed validation");
+        }
+        String username = claims.getSubject();
+
+        TaskRequest request = new TaskRequest();
+        request.setTitle("Warm-up " + suffix);
+        request.setDescription("Synthetic task used to warm up the JIT");
+        request.setPriority(TaskPriority.HIGH);
+        request.setDueDate(LocalDateTime.now().plusDays(1));
+        request.setTags(Set.of("warmup"));
+        TaskResponse created = taskService.createTask(request, username);
+
+        TaskUpdateRequest update = new TaskUpdateRequest();
+        update.setStatus(TaskStatus.COMPLETED);
+        TaskResponse updated = taskService.updateTask(created.getId(), update, username, created.getVersion());
+
+        TaskResponse fetched = taskService.getTaskById(updated.getId(), username);
+        List<TaskResponse> all = taskService.getAllUserTasks(username);
+        taskService.getUserTasksByStatus(username, TaskStatus.COMPLETED);
+        taskService.searchTasks(username, "warm");
+        taskService.filterTasks(username, List.of("warmup"), null, null, Set.of(TaskStatus.COMPLETED), null);
+        taskService.getUpcomingTasks(username, 7);
+        taskService.getOverdueTasks(username);
+        TaskStatsResponse stats = taskService.getUserTaskStats(username);
+
+        try {
+            objectMapper.writeValueAsBytes(fetched);
+            objectMapper.writeValueAsBytes(all);
+            objectMapper.writeValueAsBytes(stats);
+        } catch (Exception e) {
+            throw new IllegalStateException("Warm-up serialization failed", e);
+        }
+
+        taskService.deleteTask(created.getId(), username);
+    }
+}
@@ -0,0 +1,87 @@
+package com.gestion.backend.controller;
+
+import com.gestion.backend.dto.BackfillResponse;
+import com.gestion.backend.dto.LeadTimeStatsResponse;
+import com.gestion.backend.dto.OverdueRateResponse;
+import com.gestion.backend.dto.ThroughputPoint;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.TaskRollup.Granularity;
+import com.gestion.backend.service.AdminAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Informes globales; SecurityConfig restringe /api/admin/** al rol ADMIN
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://127.0.0.1:3000", "http://127.0.0.1:3001"}, maxAge = 3600, allowCredentials = "true")
+public class AdminAnalyticsController {
+
+    private final AdminAnalyticsService analyticsService;
+
+    // Tareas creadas, completadas y canceladas por día u hora
+    @GetMapping("/throughput")
+    public ResponseEntity<List<ThroughputPoint>> getThroughput(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") Granularity granularity) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(29);
+            return ResponseEntity.ok(analyticsService.getThroughput(start, end, granularity));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Percentiles del tiempo de resolución (completedAt - createdAt)
+    @GetMapping("/lead-time")
+    public ResponseEntity<LeadTimeStatsResponse> getLeadTime(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) TaskPriority priority) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(29);
+            return ResponseEntity.ok(analyticsService.getLeadTime(start, end, priority));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Tasa de tareas completadas fuera de plazo por prioridad
+    @GetMapping("/overdue")
+    public ResponseEntity<List<OverdueRateResponse>> getOverdueRates(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(29);
+            return ResponseEntity.ok(analyticsService.getOverdueRates(start, end));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Recalcula los agregados de un rango de días desde la tabla de tareas
+    @PostMapping("/backfill")
+    public ResponseEntity<BackfillResponse> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(analyticsService.backfill(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.gestion.backend.controller;
+
+import com.gestion.backend.dto.ShardAssignmentResponse;
+import com.gestion.backend.dto.ShardMoveResponse;
+import com.gestion.backend.dto.ShardSummary;
+import com.gestion.backend.service.ShardMigrationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Estado de los shards y movimiento de usuarios entre ellos; solo ADMIN
+@RestController
+@RequestMapping("/api/admin/shards")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://127.0.0.1:3000", "http://127.0.0.1:3001"}, maxAge = 3600, allowCredentials = "true")
+public class AdminShardController {
+
+    private final ShardMigrationService migrationService;
+
+    @GetMapping
+    public ResponseEntity<List<ShardSummary>> getShards() {
+        try {
+            return ResponseEntity.ok(migrationService.getSummaries());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<ShardAssignmentResponse> getAssignment(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(migrationService.getAssignment(userId));
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Mueve todas las tareas del usuario al shard indicado; bloquea hasta terminar
+    @PostMapping("/users/{userId}/move")
+    public ResponseEntity<ShardMoveResponse> moveUser(@PathVariable Long userId, @RequestParam String target) {
+        try {
+            return ResponseEntity.ok(migrationService.moveUser(userId, target));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.gestion.backend.controller;
+
+import com.gestion.backend.service.AuthService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Gestión de cuentas para administradores; SecurityConfig restringe /api/admin/** al rol ADMIN
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://127.0.0.1:3000", "http://127.0.0.1:3001"}, maxAge = 3600, allowCredentials = "true")
+public class AdminUserController {
+
+    private final AuthService authService;
+
+    // Invalida todos los tokens emitidos hasta ahora para el usuario
+    @PostMapping("/{userId}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable Long userId) {
+        try {
+            authService.revokeAllTokens(userId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
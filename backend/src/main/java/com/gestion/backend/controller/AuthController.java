@@ -2,13 +2,21 @@ package com.gestion.backend.controller;
 
 import com.gestion.backend.dto.AuthResponse;
 import com.gestion.backend.dto.LoginRequest;
+import com.gestion.backend.dto.RefreshTokenRequest;
 import com.gestion.backend.dto.RegisterRequest;
+import com.gestion.backend.entity.User;
 import com.gestion.backend.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -17,6 +25,9 @@ public class AuthController {
     
     private final AuthService authService;
     
+    @Value("${application.security.password.retry-after-seconds:2}")
+    private long busyRetryAfterSeconds;
+    
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
         try {
@@ -24,6 +35,8 @@ public class AuthController {
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return busy();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(new ErrorResponse("Registration failed"));
         }
@@ -34,11 +47,61 @@ public class AuthController {
         try {
             AuthResponse response = authService.authenticate(request);
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            return busy();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse("Usuario o contraseña invalidos"));
         }
     }
     
+    // Nuevo token de acceso a cambio del refresh token, que queda consumido
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            AuthResponse response = authService.refresh(request);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorResponse("Invalid refresh token"));
+        }
+    }
+    
+    // Revoca el token actual (y la familia del refresh token enviado); los demás tokens siguen valiendo
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                    @RequestBody(required = false) RefreshTokenRequest request,
+                                    Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            authService.logout(authorization.substring(7), request != null ? request.getRefreshToken() : null, user);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(new ErrorResponse("Logout failed"));
+        }
+    }
+    
+    // Cierra la sesión en todos los dispositivos
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            authService.logoutAll(authentication.getName());
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(new ErrorResponse("Logout failed"));
+        }
+    }
+    
+    // Cola de BCrypt llena: el cliente reintenta en lugar de esperar sin límite
+    private ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(busyRetryAfterSeconds))
+                .body(new ErrorResponse("Too many concurrent logins, retry shortly"));
+    }
+    
     // Error response DTO
     public static class ErrorResponse {
         private String message;
@@ -1,78 +1,281 @@
 package com.gestion.backend.controller;
 
+import com.gestion.backend.dto.CategoryFacet;
+import com.gestion.backend.dto.InventoryItemRequest;
+import com.gestion.backend.dto.InventoryItemResponse;
+import com.gestion.backend.dto.InventoryItemUpdateRequest;
+import com.gestion.backend.dto.InventoryMovementResponse;
+import com.gestion.backend.dto.InventorySearchResponse;
+import com.gestion.backend.dto.ReservationRequest;
+import com.gestion.backend.dto.ReservationResponse;
+import com.gestion.backend.dto.StockAdjustmentRequest;
+import com.gestion.backend.dto.StockLevelResponse;
+import com.gestion.backend.service.InventoryFacetCache;
+import com.gestion.backend.service.InventoryLedgerService;
+import com.gestion.backend.service.InventoryReservationService;
+import com.gestion.backend.service.InventoryService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/inventory")
 @RequiredArgsConstructor
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://127.0.0.1:3000", "http://127.0.0.1:3001"}, maxAge = 3600, allowCredentials = "true")
 public class InventoryController {
-    
+
+    private final InventoryService inventoryService;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final InventoryReservationService reservationService;
+    private final InventoryFacetCache inventoryFacetCache;
+
     // Obtener todos los items de inventario
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAllInventoryItems(Authentication authentication) {
+    public ResponseEntity<List<InventoryItemResponse>> getAllInventoryItems(Authentication authentication) {
         try {
-            // Por ahora retornamos datos de ejemplo
-            // Aquí implementarías la lógica real del inventario
-            List<Map<String, Object>> items = List.of(
-                Map.of(
-                    "id", 1,
-                    "name", "Producto de ejemplo",
-                    "quantity", 10,
-                    "price", 29.99,
-                    "category", "Electrónicos"
-                )
-            );
+            List<InventoryItemResponse> items = inventoryService.getAllItems();
             return ResponseEntity.ok(items);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
-    
+
+    // Buscar items con filtros y paginación por cursor, incluyendo conteo por categoría
+    @GetMapping("/search")
+    public ResponseEntity<InventorySearchResponse> searchInventoryItems(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean lowStock,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        try {
+            int pageSize = Math.max(1, Math.min(size, 100));
+            InventorySearchResponse response = inventoryService.searchItems(
+                category, minPrice, maxPrice, lowStock, after, pageSize);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Conteo de items por categoría (desde memoria)
+    @GetMapping("/facets")
+    public ResponseEntity<List<CategoryFacet>> getFacets(Authentication authentication) {
+        try {
+            return ResponseEntity.ok(inventoryFacetCache.getFacets());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Obtener un item específico
+    @GetMapping("/{itemId}")
+    public ResponseEntity<InventoryItemResponse> getInventoryItem(
+            @PathVariable Long itemId,
+            Authentication authentication) {
+        try {
+            InventoryItemResponse item = inventoryService.getItemById(itemId);
+            return ResponseEntity.ok(item);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Crear nuevo item de inventario
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createInventoryItem(
-            @RequestBody Map<String, Object> itemData,
+    public ResponseEntity<InventoryItemResponse> createInventoryItem(
+            @Valid @RequestBody InventoryItemRequest request,
             Authentication authentication) {
         try {
-            // Lógica para crear item
-            // Por ahora retornamos los datos recibidos con un ID
-            itemData.put("id", System.currentTimeMillis());
-            return ResponseEntity.ok(itemData);
+            InventoryItemResponse response = inventoryService.createItem(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
-    
+
     // Actualizar item de inventario
     @PutMapping("/{itemId}")
-    public ResponseEntity<Map<String, Object>> updateInventoryItem(
+    public ResponseEntity<InventoryItemResponse> updateInventoryItem(
+            @PathVariable Long itemId,
+            @Valid @RequestBody InventoryItemUpdateRequest request,
+            Authentication authentication) {
+        try {
+            InventoryItemResponse response = inventoryService.updateItem(itemId, request);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Ajustar stock (entradas y salidas) de forma atómica
+    @PostMapping("/{itemId}/adjust")
+    public ResponseEntity<InventoryItemResponse> adjustStock(
+            @PathVariable Long itemId,
+            @Valid @RequestBody StockAdjustmentRequest request,
+            Authentication authentication) {
+        try {
+            InventoryItemResponse response = inventoryService.adjustStock(
+                itemId, request.getDelta(), request.getType(), request.getReference());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Historial de movimientos de un item
+    @GetMapping("/{itemId}/movements")
+    public ResponseEntity<List<InventoryMovementResponse>> getMovements(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        try {
+            int pageSize = Math.max(1, Math.min(limit, 1000));
+            List<InventoryMovementResponse> movements = inventoryLedgerService.getMovements(itemId, from, to, pageSize);
+            return ResponseEntity.ok(movements);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Stock de un item a una fecha (por defecto, ahora)
+    @GetMapping("/{itemId}/stock")
+    public ResponseEntity<StockLevelResponse> getStockAsOf(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+            Authentication authentication) {
+        try {
+            StockLevelResponse stock = inventoryLedgerService.getStockAsOf(itemId, asOf);
+            return ResponseEntity.ok(stock);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Reservar stock de un item (opcionalmente para una tarea) con caducidad
+    @PostMapping("/{itemId}/reservations")
+    public ResponseEntity<ReservationResponse> createReservation(
+            @PathVariable Long itemId,
+            @Valid @RequestBody ReservationRequest request,
+            Authentication authentication) {
+        try {
+            ReservationResponse response = reservationService.reserve(itemId, request, authentication.getName());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Reservas activas de un item hechas por el usuario (todas para ADMIN)
+    @GetMapping("/{itemId}/reservations")
+    public ResponseEntity<List<ReservationResponse>> getActiveReservations(
             @PathVariable Long itemId,
-            @RequestBody Map<String, Object> itemData,
             Authentication authentication) {
         try {
-            // Lógica para actualizar item
-            itemData.put("id", itemId);
-            return ResponseEntity.ok(itemData);
+            List<ReservationResponse> reservations = reservationService.getActiveReservations(itemId, authentication.getName());
+            return ResponseEntity.ok(reservations);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
-    
+
+    // Reservas asociadas a una tarea del usuario
+    @GetMapping("/reservations/task/{taskId}")
+    public ResponseEntity<List<ReservationResponse>> getTaskReservations(
+            @PathVariable Long taskId,
+            Authentication authentication) {
+        try {
+            List<ReservationResponse> reservations = reservationService.getTaskReservations(taskId, authentication.getName());
+            return ResponseEntity.ok(reservations);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Confirmar una reserva: descuenta el stock retenido
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<ReservationResponse> confirmReservation(
+            @PathVariable Long reservationId,
+            Authentication authentication) {
+        try {
+            ReservationResponse response = reservationService.confirm(reservationId, authentication.getName());
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Cancelar una reserva: libera el stock retenido
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<ReservationResponse> cancelReservation(
+            @PathVariable Long reservationId,
+            Authentication authentication) {
+        try {
+            ReservationResponse response = reservationService.cancel(reservationId, authentication.getName());
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Eliminar item de inventario
     @DeleteMapping("/{itemId}")
     public ResponseEntity<Void> deleteInventoryItem(
             @PathVariable Long itemId,
             Authentication authentication) {
         try {
-            // Lógica para eliminar item
+            inventoryService.deleteItem(itemId);
             return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
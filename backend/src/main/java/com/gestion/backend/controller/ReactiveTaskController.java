@@ -0,0 +1,93 @@
+package com.gestion.backend.controller;
+
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.dto.TaskStatsResponse;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.service.ReactiveTaskService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Lecturas de /api/tasks en versión no bloqueante. Devuelve Mono: el hilo del servidor
+// se libera mientras R2DBC consulta y la respuesta se escribe por despacho asíncrono.
+// Misma autenticación (filtro JWT) y mismas respuestas que TaskController.
+@RestController
+@RequestMapping("/api/v2/tasks")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://127.0.0.1:3000", "http://127.0.0.1:3001"}, maxAge = 3600, allowCredentials = "true")
+public class ReactiveTaskController {
+
+    private final ReactiveTaskService taskService;
+
+    // Con from y/o to se añaden las ocurrencias de las recurrentes en ese rango
+    @GetMapping
+    public Mono<ResponseEntity<List<TaskResponse>>> getAllTasks(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            Authentication authentication) {
+        return list(taskService.getAllUserTasks(currentUser(authentication), from, to));
+    }
+
+    @GetMapping("/{taskId}")
+    public Mono<ResponseEntity<TaskResponse>> getTaskById(@PathVariable Long taskId, Authentication authentication) {
+        return taskService.getTaskById(taskId, currentUser(authentication))
+            .map(task -> ResponseEntity.ok().eTag(String.valueOf(task.getVersion())).body(task))
+            .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/status/{status}")
+    public Mono<ResponseEntity<List<TaskResponse>>> getTasksByStatus(@PathVariable TaskStatus status,
+                                                                     Authentication authentication) {
+        return list(taskService.getUserTasksByStatus(currentUser(authentication), status));
+    }
+
+    @GetMapping("/priority/{priority}")
+    public Mono<ResponseEntity<List<TaskResponse>>> getTasksByPriority(@PathVariable TaskPriority priority,
+                                                                       Authentication authentication) {
+        return list(taskService.getUserTasksByPriority(currentUser(authentication), priority));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<TaskResponse>>> searchTasks(@RequestParam String query,
+                                                                Authentication authentication) {
+        return list(taskService.searchTasks(currentUser(authentication), query));
+    }
+
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<TaskStatsResponse>> getTaskStats(Authentication authentication) {
+        return taskService.getUserTaskStats(currentUser(authentication))
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    @GetMapping("/upcoming")
+    public Mono<ResponseEntity<List<TaskResponse>>> getUpcomingTasks(@RequestParam(defaultValue = "7") int days,
+                                                                     Authentication authentication) {
+        return list(taskService.getUpcomingTasks(currentUser(authentication), days));
+    }
+
+    @GetMapping("/overdue")
+    public Mono<ResponseEntity<List<TaskResponse>>> getOverdueTasks(Authentication authentication) {
+        return list(taskService.getOverdueTasks(currentUser(authentication)));
+    }
+
+    // El principal lo fija JwtAuthenticationFilter con la entidad User
+    private User currentUser(Authentication authentication) {
+        return (User) authentication.getPrincipal();
+    }
+
+    private Mono<ResponseEntity<List<TaskResponse>>> list(Flux<TaskResponse> tasks) {
+        return tasks.collectList()
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+}
@@ -1,20 +1,30 @@
 package com.gestion.backend.controller;
 
+import com.gestion.backend.dto.TaskHistoryPoint;
+import com.gestion.backend.dto.TaskPageResponse;
+import com.gestion.backend.dto.TaskQueryRequest;
 import com.gestion.backend.dto.TaskRequest;
 import com.gestion.backend.dto.TaskResponse;
 import com.gestion.backend.dto.TaskStatsResponse;
 import com.gestion.backend.dto.TaskUpdateRequest;
 import com.gestion.backend.entity.Task.TaskStatus;
 import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.service.ShardFencedException;
 import com.gestion.backend.service.TaskService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -32,16 +42,22 @@ public class TaskController {
         try {
             TaskResponse response = taskService.createTask(request, authentication.getName());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ShardFencedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
-    // Obtener todas las tareas del usuario
+    // Obtener todas las tareas del usuario; con from y/o to se añaden las ocurrencias de las recurrentes en ese rango
     @GetMapping
-    public ResponseEntity<List<TaskResponse>> getAllTasks(Authentication authentication) {
+    public ResponseEntity<List<TaskResponse>> getAllTasks(
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            Authentication authentication) {
         try {
-            List<TaskResponse> tasks = taskService.getAllUserTasks(authentication.getName());
+            List<TaskResponse> tasks = taskService.getAllUserTasks(authentication.getName(), includeArchived, from, to);
             return ResponseEntity.ok(tasks);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -52,10 +68,11 @@ public class TaskController {
     @GetMapping("/{taskId}")
     public ResponseEntity<TaskResponse> getTaskById(
             @PathVariable Long taskId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
             Authentication authentication) {
         try {
-            TaskResponse task = taskService.getTaskById(taskId, authentication.getName());
-            return ResponseEntity.ok(task);
+            TaskResponse task = taskService.getTaskById(taskId, authentication.getName(), includeArchived);
+            return ResponseEntity.ok().eTag(String.valueOf(task.getVersion())).body(task);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -63,15 +80,46 @@ public class TaskController {
         }
     }
     
-    // Actualizar tarea
+    // Actualizar tarea (If-Match opcional con el ETag obtenido en el GET)
     @PutMapping("/{taskId}")
     public ResponseEntity<TaskResponse> updateTask(
             @PathVariable Long taskId,
             @Valid @RequestBody TaskUpdateRequest request,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             Authentication authentication) {
         try {
-            TaskResponse response = taskService.updateTask(taskId, request, authentication.getName());
-            return ResponseEntity.ok(response);
+            TaskResponse response = taskService.updateTask(taskId, request, authentication.getName(), parseETag(ifMatch));
+            return ResponseEntity.ok().eTag(String.valueOf(response.getVersion())).body(response);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (ShardFencedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Modificar o completar una ocurrencia de una tarea recurrente (date = occurrenceDate)
+    @PutMapping("/{taskId}/occurrences")
+    public ResponseEntity<TaskResponse> updateOccurrence(
+            @PathVariable Long taskId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+            @Valid @RequestBody TaskUpdateRequest request,
+            Authentication authentication) {
+        try {
+            TaskResponse response = taskService.updateOccurrence(taskId, date, request, authentication.getName());
+            return ResponseEntity.ok().eTag(String.valueOf(response.getVersion())).body(response);
+        } catch (ObjectOptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // Otra petición materializó la misma ocurrencia a la vez
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ShardFencedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -87,6 +135,11 @@ public class TaskController {
         try {
             taskService.deleteTask(taskId, authentication.getName());
             return ResponseEntity.noContent().build();
+        } catch (ShardFencedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Una ocurrencia se cancela en vez de borrarse y otra escritura la cambió a la vez
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -98,9 +151,10 @@ public class TaskController {
     @GetMapping("/status/{status}")
     public ResponseEntity<List<TaskResponse>> getTasksByStatus(
             @PathVariable TaskStatus status,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
             Authentication authentication) {
         try {
-            List<TaskResponse> tasks = taskService.getUserTasksByStatus(authentication.getName(), status);
+            List<TaskResponse> tasks = taskService.getUserTasksByStatus(authentication.getName(), status, includeArchived);
             return ResponseEntity.ok(tasks);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -124,15 +178,59 @@ public class TaskController {
     @GetMapping("/search")
     public ResponseEntity<List<TaskResponse>> searchTasks(
             @RequestParam String query,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
             Authentication authentication) {
         try {
-            List<TaskResponse> tasks = taskService.searchTasks(authentication.getName(), query);
+            List<TaskResponse> tasks = taskService.searchTasks(authentication.getName(), query, includeArchived);
             return ResponseEntity.ok(tasks);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    // Consulta combinada: status y priority admiten varios valores, rangos dueFrom/dueTo y
+    // createdFrom/createdTo, text, sort y paginación con after (nextCursor) y size
+    @GetMapping("/query")
+    public ResponseEntity<TaskPageResponse> queryTasks(
+            @ModelAttribute TaskQueryRequest query,
+            Authentication authentication) {
+        try {
+            query.setSize(Math.max(1, Math.min(query.getSize(), 100)));
+            TaskPageResponse response = taskService.queryTasks(authentication.getName(), query);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Filtrar por etiquetas (all = todas, any = alguna, none = ninguna), estados y prioridades;
+    // los parámetros admiten varios valores separados por comas
+    @GetMapping("/filter")
+    public ResponseEntity<List<TaskResponse>> filterTasks(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none,
+            @RequestParam(required = false) Set<TaskStatus> status,
+            @RequestParam(required = false) Set<TaskPriority> priority,
+            Authentication authentication) {
+        try {
+            List<TaskResponse> tasks = taskService.filterTasks(authentication.getName(), all, any, none, status, priority);
+            return ResponseEntity.ok(tasks);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Etiquetas del usuario con su número de tareas
+    @GetMapping("/tags")
+    public ResponseEntity<Map<String, Integer>> getTags(Authentication authentication) {
+        try {
+            return ResponseEntity.ok(taskService.getUserTags(authentication.getName()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     // Obtener estadísticas de tareas
     @GetMapping("/stats")
     public ResponseEntity<TaskStatsResponse> getTaskStats(Authentication authentication) {
@@ -144,6 +242,19 @@ public class TaskController {
         }
     }
     
+    // Obtener la serie diaria de abiertas/completadas para el burndown
+    @GetMapping("/stats/history")
+    public ResponseEntity<List<TaskHistoryPoint>> getTaskHistory(
+            @RequestParam(defaultValue = "90") int days,
+            Authentication authentication) {
+        try {
+            List<TaskHistoryPoint> history = taskService.getTaskHistory(authentication.getName(), days);
+            return ResponseEntity.ok(history);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     // Obtener tareas próximas (próximos N días)
     @GetMapping("/upcoming")
     public ResponseEntity<List<TaskResponse>> getUpcomingTasks(
@@ -167,4 +278,16 @@ public class TaskController {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    // Convierte un ETag ("3", W/"3" o *) en la versión esperada; * o ausente no imponen versión
+    private Long parseETag(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        return Long.parseLong(value.replace("\"", ""));
+    }
 }
@@ -0,0 +1,148 @@
+package com.gestion.backend.controller;
+
+import com.gestion.backend.config.GraphQlConfig;
+import com.gestion.backend.dto.InventoryItemResponse;
+import com.gestion.backend.dto.ReservationResponse;
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.dto.TaskStatsResponse;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.repository.UserRepository;
+import com.gestion.backend.service.InventoryReservationService;
+import com.gestion.backend.service.InventoryService;
+import com.gestion.backend.service.ShardRouter;
+import com.gestion.backend.service.TaskService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Lecturas GraphQL sobre tareas, estadísticas e inventario. Los campos relacionados
+// (propietario, reservas, item de cada reserva) se resuelven con @BatchMapping: un
+// DataLoader por petición junta todas las claves de un nivel en una sola consulta, así
+// que N tareas cuestan el mismo número de sentencias que una.
+@Controller
+@RequiredArgsConstructor
+public class TaskGraphQlController {
+
+    private final TaskService taskService;
+    private final InventoryService inventoryService;
+    private final InventoryReservationService reservationService;
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+
+    @QueryMapping
+    public List<TaskResponse> tasks(@Argument TaskStatus status,
+                                    @Argument TaskPriority priority,
+                                    @Argument boolean includeArchived,
+                                    @Argument int first,
+                                    @Argument Long after,
+                                    Authentication authentication) {
+        User user = currentUser(authentication);
+        List<TaskResponse> tasks = inUserShard(user, () -> status != null
+            ? taskService.getUserTasksByStatus(user.getUsername(), status, includeArchived)
+            : taskService.getAllUserTasks(user.getUsername(), includeArchived));
+        // Solo filas: las ocurrencias calculadas de las recurrentes no tienen id
+        List<TaskResponse> rows = tasks.stream()
+            .filter(task -> !task.isVirtual())
+            .filter(task -> priority == null || task.getPriority() == priority)
+            .collect(Collectors.toList());
+        // after: id de la última tarea de la página anterior, en el mismo orden de la lista.
+        // Si ya no está (borrada, archivada, de otro filtro) la página sale vacía: volver a
+        // la primera haría que el cliente recorriera la lista sin fin.
+        int start = 0;
+        if (after != null) {
+            start = rows.size();
+            for (int i = 0; i < rows.size(); i++) {
+                if (after.equals(rows.get(i).getId())) {
+                    start = i + 1;
+                    break;
+                }
+            }
+        }
+        int end = Math.min(rows.size(), start + GraphQlConfig.clampPageSize(first));
+        return rows.subList(Math.min(start, end), end);
+    }
+
+    @QueryMapping
+    public TaskResponse task(@Argument Long id, @Argument boolean includeArchived, Authentication authentication) {
+        User user = currentUser(authentication);
+        try {
+            return inUserShard(user, () -> taskService.getTaskById(id, user.getUsername(), includeArchived));
+        } catch (RuntimeException e) {
+            // Igual que el 404 de la API REST: una tarea ajena o inexistente es null
+            return null;
+        }
+    }
+
+    @QueryMapping
+    public TaskStatsResponse taskStats(Authentication authentication) {
+        User user = currentUser(authentication);
+        return inUserShard(user, () -> taskService.getUserTaskStats(user.getUsername()));
+    }
+
+    @QueryMapping
+    public List<InventoryItemResponse> inventoryItems(@Argument String category,
+                                                      @Argument boolean lowStock,
+                                                      @Argument int first,
+                                                      @Argument Long after) {
+        int size = GraphQlConfig.clampPageSize(first);
+        return inventoryService.searchItems(category, null, null, lowStock, after, size).getItems();
+    }
+
+    @QueryMapping
+    public InventoryItemResponse inventoryItem(@Argument Long id) {
+        try {
+            return inventoryService.getItemById(id);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @BatchMapping(typeName = "Task")
+    public List<User> owner(List<TaskResponse> tasks) {
+        Map<Long, User> users = userRepository.findAllById(
+                tasks.stream().map(TaskResponse::getUserId).distinct().toList()).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        return tasks.stream().map(task -> users.get(task.getUserId())).toList();
+    }
+
+    @BatchMapping(typeName = "Task")
+    public List<List<ReservationResponse>> reservations(List<TaskResponse> tasks) {
+        Map<Long, List<ReservationResponse>> byTask = reservationService.getReservationsByTask(
+            tasks.stream().map(TaskResponse::getId).distinct().toList());
+        // Las más recientes primero, hasta el tope con el que GraphQlConfig calcula el coste
+        return tasks.stream()
+            .map(task -> byTask.getOrDefault(task.getId(), List.of()))
+            .map(reservations -> reservations.subList(0, Math.min(reservations.size(), GraphQlConfig.MAX_RESERVATIONS_PER_TASK)))
+            .toList();
+    }
+
+    @BatchMapping(typeName = "Reservation")
+    public List<InventoryItemResponse> item(List<ReservationResponse> reservations) {
+        Map<Long, InventoryItemResponse> items = inventoryService.getItemsById(
+            reservations.stream().map(ReservationResponse::getItemId).distinct().toList());
+        return reservations.stream().map(reservation -> items.get(reservation.getItemId())).toList();
+    }
+
+    private User currentUser(Authentication authentication) {
+        return (User) authentication.getPrincipal();
+    }
+
+    // Con sharding las tareas viven en el shard del usuario; usuarios e inventario, en la base global
+    private <T> T inUserShard(User user, Supplier<T> read) {
+        if (!shardRouter.isEnabled()) {
+            return read.get();
+        }
+        return shardRouter.callForUser(user.getId(), read);
+    }
+}
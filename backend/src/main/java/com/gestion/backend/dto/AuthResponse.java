@@ -11,14 +11,16 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
     
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long id;
     private String username;
     private String email;
     private String role;
     
-    public AuthResponse(String token, User user) {
+    public AuthResponse(String token, String refreshToken, User user) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.id = user.getId();
         this.username = user.getUsername();
         this.email = user.getEmail();
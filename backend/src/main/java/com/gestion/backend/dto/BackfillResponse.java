@@ -0,0 +1,19 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private int days;
+    private long tasksScanned;
+    private long elapsedMillis;
+}
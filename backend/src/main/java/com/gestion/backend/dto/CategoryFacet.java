@@ -0,0 +1,14 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacet {
+
+    private String category; // null para items sin categoría
+    private long count;
+}
@@ -0,0 +1,40 @@
+package com.gestion.backend.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryItemRequest {
+
+    @NotBlank(message = "SKU is required")
+    @Size(max = 64, message = "SKU must not exceed 64 characters")
+    private String sku;
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 255, message = "Name must not exceed 255 characters")
+    private String name;
+
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    private String description;
+
+    @Size(max = 100, message = "Category must not exceed 100 characters")
+    private String category;
+
+    @Min(value = 0, message = "Quantity must not be negative")
+    private Integer quantity;
+
+    @DecimalMin(value = "0.0", message = "Price must not be negative")
+    private BigDecimal price;
+
+    @Min(value = 0, message = "Minimum stock must not be negative")
+    private Integer minStock;
+}
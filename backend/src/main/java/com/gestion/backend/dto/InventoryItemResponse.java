@@ -0,0 +1,28 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryItemResponse {
+
+    private Long id;
+    private String sku;
+    private String name;
+    private String description;
+    private String category;
+    private int quantity;
+    private int reserved;
+    private int availableToPromise;
+    private int minStock;
+    private boolean lowStock;
+    private BigDecimal price;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.gestion.backend.dto;
+
+import com.gestion.backend.entity.InventoryMovement.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovementResponse {
+
+    private Long id;
+    private Long itemId;
+    private MovementType type;
+    private int quantity;
+    private String reference;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,17 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySearchResponse {
+
+    private List<InventoryItemResponse> items;
+    private Long nextCursor; // id a enviar como "after" para la página siguiente, null si no hay más
+    private List<CategoryFacet> facets;
+}
@@ -0,0 +1,24 @@
+package com.gestion.backend.dto;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Percentiles estimados a partir del histograma logarítmico (interpolados dentro de la cubeta)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeadTimeStatsResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private TaskPriority priority;
+    private long completed;
+    private double averageMinutes;
+    private long p50Minutes;
+    private long p90Minutes;
+    private long p99Minutes;
+}
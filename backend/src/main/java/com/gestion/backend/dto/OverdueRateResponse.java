@@ -0,0 +1,17 @@
+package com.gestion.backend.dto;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueRateResponse {
+
+    private TaskPriority priority;
+    private long completed;
+    private long completedLate;
+    private double lateRate;
+}
@@ -0,0 +1,23 @@
+package com.gestion.backend.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    private Long taskId;
+
+    // Tiempo de retención; si no se indica se usa el valor por defecto configurado
+    @Min(value = 1, message = "TTL must be at least 1 second")
+    private Long ttlSeconds;
+}
@@ -0,0 +1,24 @@
+package com.gestion.backend.dto;
+
+import com.gestion.backend.entity.InventoryReservation.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+
+    private Long id;
+    private Long itemId;
+    private Long taskId;
+    private Long userId;
+    private int quantity;
+    private ReservationStatus status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime resolvedAt;
+}
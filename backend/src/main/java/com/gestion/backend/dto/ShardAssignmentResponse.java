@@ -0,0 +1,15 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardAssignmentResponse {
+
+    private Long userId;
+    private String shard;
+    private boolean moving;
+}
@@ -0,0 +1,20 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardMoveResponse {
+
+    private Long userId;
+    private String fromShard;
+    private String toShard;
+    private long tasksCopied;
+    private long archivedTasksCopied;
+    private long dailyStatsCopied;
+    private long frozenMillis;
+    private long elapsedMillis;
+}
@@ -0,0 +1,17 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardSummary {
+
+    private String name;
+    private boolean defaultShard;
+    private long users;
+    private long tasks;
+    private long archivedTasks;
+}
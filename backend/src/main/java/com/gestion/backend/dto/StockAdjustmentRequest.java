@@ -0,0 +1,23 @@
+package com.gestion.backend.dto;
+
+import com.gestion.backend.entity.InventoryMovement.MovementType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentRequest {
+
+    // Positivo para entradas, negativo para salidas
+    @NotNull(message = "Delta is required")
+    private Integer delta;
+
+    private MovementType type = MovementType.ADJUSTMENT;
+
+    @Size(max = 255, message = "Reference must not exceed 255 characters")
+    private String reference;
+}
@@ -0,0 +1,18 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelResponse {
+
+    private Long itemId;
+    private LocalDateTime asOf;
+    private long quantity;
+    private LocalDateTime snapshotAsOf; // Snapshot usado como base, null si se sumó desde el origen
+}
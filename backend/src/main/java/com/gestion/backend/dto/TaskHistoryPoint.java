@@ -0,0 +1,19 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskHistoryPoint {
+
+    private LocalDate date;
+    private long open;
+    private long completed;
+    // Variación de completadas respecto al día anterior (velocidad)
+    private long completedDelta;
+}
@@ -0,0 +1,16 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskPageResponse {
+
+    private List<TaskResponse> items;
+    private String nextCursor; // a enviar como "after" para la página siguiente, null si no hay más
+}
@@ -0,0 +1,53 @@
+package com.gestion.backend.dto;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// Criterios combinables de GET /api/tasks/query; los null no filtran.
+// Los rangos incluyen "from" y excluyen "to".
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskQueryRequest {
+
+    private Set<TaskStatus> status;
+
+    private Set<TaskPriority> priority;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    // Contenido en el título o la descripción, sin distinguir mayúsculas
+    private String text;
+
+    private SortOrder sort = SortOrder.CREATED_DESC;
+
+    // nextCursor de la página anterior
+    private String after;
+
+    private int size = 20;
+
+    // Los órdenes por fecha límite solo devuelven tareas que la tienen
+    public enum SortOrder {
+        CREATED_DESC,
+        CREATED_ASC,
+        DUE_ASC,
+        DUE_DESC
+    }
+}
@@ -1,7 +1,10 @@
 package com.gestion.backend.dto;
 
 import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskRecurrence;
 import com.gestion.backend.entity.Task.TaskStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -9,6 +12,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
@@ -27,4 +31,16 @@ public class TaskRequest {
     private TaskPriority priority = TaskPriority.MEDIUM;
     
     private LocalDateTime dueDate;
+    
+    // Repetir cada recurrenceInterval días/semanas/meses/años desde dueDate (obligatoria), hasta recurrenceUntil si llega
+    private TaskRecurrence recurrence;
+    
+    @Min(value = 1, message = "Recurrence interval must be at least 1")
+    @Max(value = 365, message = "Recurrence interval must not exceed 365")
+    private Integer recurrenceInterval;
+    
+    private LocalDateTime recurrenceUntil;
+    
+    @Size(max = 20, message = "A task can have at most 20 tags")
+    private Set<String> tags;
 }
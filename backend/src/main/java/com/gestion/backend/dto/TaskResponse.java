@@ -1,12 +1,14 @@
 package com.gestion.backend.dto;
 
 import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskRecurrence;
 import com.gestion.backend.entity.Task.TaskStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
@@ -22,6 +24,15 @@ public class TaskResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime completedAt;
+    private TaskRecurrence recurrence;
+    private Integer recurrenceInterval;
+    private LocalDateTime recurrenceUntil;
+    private Long seriesId; // Ocurrencias: tarea recurrente de la que salen
+    private LocalDateTime occurrenceDate;
+    private Set<String> tags;
     private Long userId;
     private String username; // Para mostrar en el frontend si es necesario
+    private Long version;
+    private boolean archived; // Solo lectura: movida a archived_tasks
+    private boolean virtual; // Ocurrencia calculada sin fila propia (id null); se modifica con PUT /{seriesId}/occurrences
 }
@@ -1,13 +1,17 @@
 package com.gestion.backend.dto;
 
 import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskRecurrence;
 import com.gestion.backend.entity.Task.TaskStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
@@ -25,4 +29,16 @@ public class TaskUpdateRequest {
     private TaskPriority priority;
     
     private LocalDateTime dueDate;
+    
+    private TaskRecurrence recurrence;
+    
+    @Min(value = 1, message = "Recurrence interval must be at least 1")
+    @Max(value = 365, message = "Recurrence interval must not exceed 365")
+    private Integer recurrenceInterval;
+    
+    private LocalDateTime recurrenceUntil;
+    
+    // null deja las etiquetas como están; un conjunto vacío las quita todas
+    @Size(max = 20, message = "A task can have at most 20 tags")
+    private Set<String> tags;
 }
@@ -0,0 +1,18 @@
+package com.gestion.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThroughputPoint {
+
+    private LocalDateTime bucketStart;
+    private long created;
+    private long completed;
+    private long cancelled;
+}
@@ -0,0 +1,88 @@
+package com.gestion.backend.entity;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskRecurrence;
+import com.gestion.backend.entity.Task.TaskStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Tareas COMPLETED/CANCELLED antiguas movidas fuera de la tabla caliente por TaskArchiver.
+// Conservan el id original y son de solo lectura; user_id es una columna simple para que
+// el archivo no arrastre relaciones ni cargas perezosas.
+@Entity
+@Table(name = "archived_tasks", indexes = {
+    @Index(name = "idx_archived_tasks_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_archived_tasks_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_archived_tasks_created_at", columnList = "created_at"),
+    @Index(name = "idx_archived_tasks_completed_at", columnList = "completed_at"),
+    @Index(name = "idx_archived_tasks_status_updated_at", columnList = "status, updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTask {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskPriority priority;
+
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence")
+    private TaskRecurrence recurrence;
+
+    @Column(name = "recurrence_interval")
+    private Integer recurrenceInterval;
+
+    @Column(name = "recurrence_until")
+    private LocalDateTime recurrenceUntil;
+
+    @Column(name = "series_id")
+    private Long seriesId;
+
+    @Column(name = "occurrence_date")
+    private LocalDateTime occurrenceDate;
+
+    @Convert(converter = TagSetConverter.class)
+    @Column(length = 1000)
+    private Set<String> tags = new TreeSet<>();
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,82 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Cantidad y reservado solo se modifican con UPDATE condicionales (ver InventoryItemRepository).
+// @DynamicUpdate evita que un save() de la entidad reescriba esas columnas
+// con valores leídos antes de un ajuste concurrente.
+@Entity
+@Table(name = "inventory_items", indexes = {
+    @Index(name = "idx_inventory_category_id", columnList = "category, id"),
+    @Index(name = "idx_inventory_price", columnList = "price")
+})
+@DynamicUpdate
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "SKU is required")
+    @Size(max = 64, message = "SKU must not exceed 64 characters")
+    @Column(nullable = false, unique = true, length = 64)
+    private String sku;
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 255, message = "Name must not exceed 255 characters")
+    @Column(nullable = false)
+    private String name;
+
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Size(max = 100, message = "Category must not exceed 100 characters")
+    @Column(length = 100)
+    private String category;
+
+    @Column(nullable = false)
+    private int quantity = 0;
+
+    // Unidades retenidas por reservas activas; disponible = quantity - reserved
+    @Column(nullable = false)
+    private int reserved = 0;
+
+    // Umbral de stock bajo: el item se marca cuando el disponible no lo supera
+    @Column(name = "min_stock", nullable = false)
+    private int minStock = 0;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal price = BigDecimal.ZERO;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,49 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Libro de movimientos de solo inserción: las filas nunca se actualizan ni se borran.
+// InventoryLedgerWriter las inserta en la transacción del ajuste de stock.
+@Entity
+@Table(name = "inventory_movements", indexes = {
+    @Index(name = "idx_movements_item_occurred", columnList = "item_id, occurred_at"),
+    @Index(name = "idx_movements_occurred", columnList = "occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false, updatable = false)
+    private Long itemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, updatable = false, length = 20)
+    private MovementType type;
+
+    // Cantidad con signo: positiva para entradas, negativa para salidas
+    @Column(nullable = false, updatable = false)
+    private int quantity;
+
+    @Column(length = 255, updatable = false)
+    private String reference;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    public enum MovementType {
+        RECEIPT,
+        SALE,
+        ADJUSTMENT,
+        CONSUMPTION
+    }
+}
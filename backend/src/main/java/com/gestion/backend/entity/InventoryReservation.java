@@ -0,0 +1,59 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Retención temporal de stock. Solo se descuenta del inventario al confirmarse;
+// las transiciones de estado se hacen con UPDATE condicionales desde ACTIVE.
+@Entity
+@Table(name = "inventory_reservations", indexes = {
+    @Index(name = "idx_reservations_status_expires", columnList = "status, expires_at"),
+    @Index(name = "idx_reservations_item_status", columnList = "item_id, status"),
+    @Index(name = "idx_reservations_task", columnList = "task_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false, updatable = false)
+    private Long itemId;
+
+    // Tarea (orden de trabajo) para la que se reservan las piezas, opcional
+    @Column(name = "task_id", updatable = false)
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(nullable = false, updatable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status = ReservationStatus.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    public enum ReservationStatus {
+        ACTIVE,
+        CONFIRMED,
+        CANCELLED,
+        EXPIRED
+    }
+}
@@ -0,0 +1,33 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Saldo compactado de un item en un instante: el stock a una fecha T es el último
+// snapshot anterior a T más la cola de movimientos posteriores.
+@Entity
+@Table(name = "inventory_snapshots", indexes = {
+    @Index(name = "uk_snapshots_item_as_of", columnList = "item_id, as_of", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false, updatable = false)
+    private Long itemId;
+
+    @Column(name = "as_of", nullable = false, updatable = false)
+    private LocalDateTime asOf;
+
+    @Column(nullable = false, updatable = false)
+    private long balance;
+}
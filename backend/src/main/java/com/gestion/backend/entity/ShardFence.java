@@ -0,0 +1,29 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Valla de escritura de un usuario en un shard (tabla de cada shard): mientras exista la
+// fila, ninguna transacción de tareas de ese usuario confirma allí. La pone el movimiento
+// en el shard de origen al congelar y se queda tras el movimiento; ver ShardFences.
+@Entity
+@Table(name = "shard_fences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardFence {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "fenced_at", nullable = false)
+    private LocalDateTime fencedAt;
+}
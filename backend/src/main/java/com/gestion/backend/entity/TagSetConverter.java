@@ -0,0 +1,50 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Etiquetas de una tarea en una sola columna separadas por comas. TaskService ya las guarda
+// normalizadas (minúsculas, sin comas) y ordenadas, así que la columna es estable.
+@Converter
+public class TagSetConverter implements AttributeConverter<Set<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Set<String> tags) {
+        return format(tags);
+    }
+
+    @Override
+    public Set<String> convertToEntityAttribute(String column) {
+        return parse(column);
+    }
+
+    public static String format(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        return String.join(",", new TreeSet<>(tags));
+    }
+
+    // Siempre devuelve un conjunto modificable, vacío si la columna es null
+    public static Set<String> parse(String column) {
+        Set<String> tags = new TreeSet<>();
+        if (column == null || column.isBlank()) {
+            return tags;
+        }
+        for (String tag : column.split(",")) {
+            if (!tag.isBlank()) {
+                tags.add(tag.trim());
+            }
+        }
+        return tags;
+    }
+
+    public static Set<String> copyOf(Collection<String> tags) {
+        return tags == null ? Collections.emptySet() : Collections.unmodifiableSet(new TreeSet<>(tags));
+    }
+}
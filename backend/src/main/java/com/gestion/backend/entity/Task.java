@@ -8,9 +8,21 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_user_created_at", columnList = "user_id, created_at"),
+    // Orden y cursor por fecha límite de /api/tasks/query
+    @Index(name = "idx_tasks_user_due_date", columnList = "user_id, due_date"),
+    // Una sola fila por ocurrencia modificada de una serie
+    @Index(name = "uk_tasks_series_occurrence", columnList = "series_id, occurrence_date", unique = true),
+    // Rangos por fecha usados por el backfill de analíticas
+    @Index(name = "idx_tasks_created_at", columnList = "created_at"),
+    @Index(name = "idx_tasks_completed_at", columnList = "completed_at"),
+    @Index(name = "idx_tasks_status_updated_at", columnList = "status, updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,6 +61,35 @@ public class Task {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
     
+    // Tarea recurrente: dueDate es la primera ocurrencia y las demás se calculan al leer
+    // (TaskRecurrenceExpander). Solo se guarda fila para las ocurrencias modificadas o completadas.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence")
+    private TaskRecurrence recurrence;
+    
+    @Column(name = "recurrence_interval")
+    private Integer recurrenceInterval;
+    
+    @Column(name = "recurrence_until")
+    private LocalDateTime recurrenceUntil;
+    
+    // En la fila de una ocurrencia: la tarea recurrente y la fecha original de la ocurrencia
+    @Column(name = "series_id")
+    private Long seriesId;
+    
+    @Column(name = "occurrence_date")
+    private LocalDateTime occurrenceDate;
+    
+    // Normalizadas por TaskService; ver TagSetConverter
+    @Convert(converter = TagSetConverter.class)
+    @Column(length = 1000)
+    private Set<String> tags = new TreeSet<>();
+    
+    // Control de concurrencia optimista: se expone como ETag y se compara con If-Match
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Relación con User
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -70,6 +111,9 @@ public class Task {
             createdAt = LocalDateTime.now();
         }
         updatedAt = LocalDateTime.now();
+        if (status == TaskStatus.COMPLETED && completedAt == null) {
+            completedAt = updatedAt;
+        }
     }
     
     public enum TaskStatus {
@@ -85,4 +129,11 @@ public class Task {
         HIGH,
         URGENT
     }
+    
+    public enum TaskRecurrence {
+        DAILY,
+        WEEKLY,
+        MONTHLY,
+        YEARLY
+    }
 }
@@ -0,0 +1,37 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Totales acumulados de un usuario al cierre de un día: abiertas (PENDING + IN_PROGRESS)
+// y completadas. Solo se escribe la fila del día en curso; un día sin cambios hereda los
+// valores de la última fila anterior, así que la serie tiene una fila por día con actividad.
+@Entity
+@Table(name = "task_daily_stats", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_task_daily_stats_user_date", columnNames = {"user_id", "stat_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDailyStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "open_count", nullable = false)
+    private long openCount;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+}
@@ -0,0 +1,28 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Marca que la serie de task_daily_stats de un usuario ya se sembró. La inserta la única
+// transacción que siembra; cualquier otra que lo intente a la vez espera a que confirme.
+@Entity
+@Table(name = "task_history_seeds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskHistorySeed {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "seeded_at", nullable = false)
+    private LocalDateTime seededAt;
+}
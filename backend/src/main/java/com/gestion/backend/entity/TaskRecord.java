@@ -0,0 +1,67 @@
+package com.gestion.backend.entity;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskRecurrence;
+import com.gestion.backend.entity.Task.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// Fila de tasks para la API reactiva (R2DBC). Solo lectura: el esquema y las escrituras
+// siguen siendo de la entidad JPA Task.
+@Table("tasks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskRecord {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private TaskStatus status;
+
+    private TaskPriority priority;
+
+    @Column("due_date")
+    private LocalDateTime dueDate;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column("completed_at")
+    private LocalDateTime completedAt;
+
+    private TaskRecurrence recurrence;
+
+    @Column("recurrence_interval")
+    private Integer recurrenceInterval;
+
+    @Column("recurrence_until")
+    private LocalDateTime recurrenceUntil;
+
+    @Column("series_id")
+    private Long seriesId;
+
+    @Column("occurrence_date")
+    private LocalDateTime occurrenceDate;
+
+    // Columna separada por comas, ver TagSetConverter
+    private String tags;
+
+    private Long version;
+
+    @Column("user_id")
+    private Long userId;
+}
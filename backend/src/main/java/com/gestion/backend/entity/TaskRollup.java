@@ -0,0 +1,58 @@
+package com.gestion.backend.entity;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Agregado de actividad de tareas por hora o día y prioridad. Se mantiene con upserts
+// incrementales desde TaskRollupRecorder en la transacción de cada cambio, en el shard de la
+// tarea; los informes de administración leen solo de aquí.
+@Entity
+@Table(name = "task_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_task_rollups_bucket", columnNames = {"granularity", "bucket_start", "priority"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TaskPriority priority;
+
+    @Column(name = "created_count", nullable = false)
+    private long createdCount;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+
+    // Completadas después de su fecha límite
+    @Column(name = "completed_late_count", nullable = false)
+    private long completedLateCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+
+    @Column(name = "lead_time_minutes_sum", nullable = false)
+    private long leadTimeMinutesSum;
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+}
@@ -1,5 +1,6 @@
 package com.gestion.backend.entity;
 
+import com.gestion.backend.event.UserChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -17,6 +18,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -63,6 +65,10 @@ public class User implements UserDetails {
     @Column(name = "credentials_non_expired")
     private boolean credentialsNonExpired = true;
     
+    // Los tokens emitidos antes de este instante ya no valen ("cerrar sesión en todos los dispositivos")
+    @Column(name = "tokens_valid_after")
+    private LocalDateTime tokensValidAfter;
+    
     // UserDetails implementation
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -0,0 +1,40 @@
+package com.gestion.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Shard de cada usuario (tabla global). Un usuario sin fila vive en el shard por defecto,
+// que es donde estaban todos los datos antes de activar el sharding. MOVING congela las
+// escrituras del usuario mientras sus tareas se copian a otro shard.
+@Entity
+@Table(name = "user_shard_assignments", indexes = {
+    @Index(name = "idx_user_shard_updated_at", columnList = "updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserShardAssignment {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, length = 64)
+    private String shard;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AssignmentStatus status;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum AssignmentStatus {
+        ACTIVE,
+        MOVING
+    }
+}
@@ -0,0 +1,34 @@
+package com.gestion.backend.event;
+
+import com.gestion.backend.dto.TaskResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Publicado por TaskService en cada escritura de tareas. previous es null al crear
+// y current es null al borrar; ambos son copias desacopladas de la entidad.
+@Getter
+@AllArgsConstructor
+public class TaskChangedEvent {
+
+    private final ChangeType type;
+    private final TaskResponse previous;
+    private final TaskResponse current;
+
+    public TaskResponse getLatest() {
+        return current != null ? current : previous;
+    }
+
+    public Long getUserId() {
+        return getLatest().getUserId();
+    }
+
+    public String getUsername() {
+        return getLatest().getUsername();
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
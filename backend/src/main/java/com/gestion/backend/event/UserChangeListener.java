@@ -0,0 +1,28 @@
+package com.gestion.backend.event;
+
+import com.gestion.backend.entity.User;
+import com.gestion.backend.service.InvalidationBus;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Listener JPA de User: cualquier escritura del usuario, venga de donde venga, invalida
+// su entrada en las cachés de todos los nodos. Hibernate lo obtiene del contenedor de Spring.
+@Component
+public class UserChangeListener {
+
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+
+    public UserChangeListener(ObjectProvider<InvalidationBus> invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        invalidationBus.getObject().publish(InvalidationBus.USERS, String.valueOf(user.getId()));
+    }
+}
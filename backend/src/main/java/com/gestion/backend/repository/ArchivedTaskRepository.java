@@ -0,0 +1,37 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.ArchivedTask;
+import com.gestion.backend.entity.Task.TaskStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    List<ArchivedTask> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    List<ArchivedTask> findByUserIdAndStatusOrderByCreatedAtDesc(Long userId, TaskStatus status);
+
+    Optional<ArchivedTask> findByIdAndUserId(Long taskId, Long userId);
+
+    long countByUserIdAndStatus(Long userId, TaskStatus status);
+
+    long countByUserId(Long userId);
+
+    @Query("SELECT t FROM ArchivedTask t WHERE t.userId = :userId AND (LOWER(t.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(t.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) ORDER BY t.createdAt DESC")
+    List<ArchivedTask> findByUserIdAndTitleOrDescriptionContaining(@Param("userId") Long userId,
+                                                                  @Param("searchTerm") String searchTerm);
+
+    // Rangos globales para el backfill de analíticas
+    List<ArchivedTask> findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(LocalDateTime from, LocalDateTime to);
+
+    List<ArchivedTask> findByStatusAndCompletedAtGreaterThanEqualAndCompletedAtLessThan(TaskStatus status, LocalDateTime from, LocalDateTime to);
+
+    List<ArchivedTask> findByStatusAndUpdatedAtGreaterThanEqualAndUpdatedAtLessThan(TaskStatus status, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,83 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.InventoryItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryItemRepository extends JpaRepository<InventoryItem, Long> {
+
+    List<InventoryItem> findAllByOrderByNameAsc();
+
+    boolean existsBySku(String sku);
+
+    boolean existsBySkuAndIdNot(String sku, Long id);
+
+    // Búsqueda filtrada con paginación por clave (id > cursor), sin OFFSET
+    @Query("SELECT i FROM InventoryItem i WHERE i.id > :afterId " +
+           "AND (:category IS NULL OR i.category = :category) " +
+           "AND (:minPrice IS NULL OR i.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR i.price <= :maxPrice) " +
+           "AND (:lowStock = false OR i.quantity - i.reserved <= i.minStock) " +
+           "ORDER BY i.id ASC")
+    List<InventoryItem> search(@Param("category") String category,
+                               @Param("minPrice") BigDecimal minPrice,
+                               @Param("maxPrice") BigDecimal maxPrice,
+                               @Param("lowStock") boolean lowStock,
+                               @Param("afterId") Long afterId,
+                               Pageable pageable);
+
+    // Conteo por categoría; solo se usa para construir la caché de facetas
+    @Query("SELECT i.category, COUNT(i) FROM InventoryItem i GROUP BY i.category")
+    List<Object[]> countByCategory();
+
+    // Ajuste atómico de stock: la base de datos suma el delta sobre el valor actual
+    // y rechaza el cambio si dejaría el stock por debajo de lo reservado. Devuelve las filas afectadas.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.quantity = i.quantity + :delta, i.updatedAt = :now " +
+           "WHERE i.id = :itemId AND i.quantity + :delta >= i.reserved")
+    int adjustQuantity(@Param("itemId") Long itemId,
+                       @Param("delta") int delta,
+                       @Param("now") LocalDateTime now);
+
+    // Fija la cantidad absoluta (inventario físico) solo si nadie la cambió desde la lectura
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.quantity = :quantity, i.updatedAt = :now " +
+           "WHERE i.id = :itemId AND i.quantity = :expected AND :quantity >= i.reserved")
+    int setQuantityIfCurrent(@Param("itemId") Long itemId,
+                             @Param("expected") int expected,
+                             @Param("quantity") int quantity,
+                             @Param("now") LocalDateTime now);
+
+    // Retiene unidades para una reserva si hay disponible suficiente
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.reserved = i.reserved + :quantity, i.updatedAt = :now " +
+           "WHERE i.id = :itemId AND i.quantity - i.reserved >= :quantity")
+    int reserve(@Param("itemId") Long itemId,
+                @Param("quantity") int quantity,
+                @Param("now") LocalDateTime now);
+
+    // Libera unidades retenidas (cancelación o expiración)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.reserved = i.reserved - :quantity, i.updatedAt = :now " +
+           "WHERE i.id = :itemId AND i.reserved >= :quantity")
+    int releaseReserved(@Param("itemId") Long itemId,
+                        @Param("quantity") int quantity,
+                        @Param("now") LocalDateTime now);
+
+    // Convierte una retención en salida real de stock (confirmación)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.quantity = i.quantity - :quantity, i.reserved = i.reserved - :quantity, " +
+           "i.updatedAt = :now WHERE i.id = :itemId AND i.reserved >= :quantity AND i.quantity >= :quantity")
+    int consumeReserved(@Param("itemId") Long itemId,
+                        @Param("quantity") int quantity,
+                        @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,38 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    // Historial de un item en un rango, más recientes primero
+    List<InventoryMovement> findByItemIdAndOccurredAtBetweenOrderByOccurredAtDesc(Long itemId,
+                                                                                 LocalDateTime from,
+                                                                                 LocalDateTime to,
+                                                                                 Pageable pageable);
+
+    // Suma de la cola de movimientos posterior a un snapshot
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM InventoryMovement m " +
+           "WHERE m.itemId = :itemId AND m.occurredAt > :from AND m.occurredAt <= :to")
+    long sumQuantityBetween(@Param("itemId") Long itemId,
+                            @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to);
+
+    // Suma desde el origen, para items que todavía no tienen snapshot
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM InventoryMovement m " +
+           "WHERE m.itemId = :itemId AND m.occurredAt <= :to")
+    long sumQuantityUpTo(@Param("itemId") Long itemId, @Param("to") LocalDateTime to);
+
+    // Items con movimientos nuevos desde la última compactación
+    @Query("SELECT DISTINCT m.itemId FROM InventoryMovement m WHERE m.occurredAt > :from AND m.occurredAt <= :to")
+    List<Long> findItemIdsWithMovementsBetween(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,43 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.InventoryReservation;
+import com.gestion.backend.entity.InventoryReservation.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long> {
+
+    List<InventoryReservation> findByItemIdAndStatusOrderByExpiresAtAsc(Long itemId, ReservationStatus status);
+
+    List<InventoryReservation> findByItemIdAndUserIdAndStatusOrderByExpiresAtAsc(Long itemId, Long userId, ReservationStatus status);
+
+    List<InventoryReservation> findByTaskIdOrderByCreatedAtDesc(Long taskId);
+
+    // Reservas de varias tareas en una sola consulta (carga por lotes de GraphQL)
+    List<InventoryReservation> findByTaskIdInOrderByCreatedAtDesc(Collection<Long> taskIds);
+
+    // Reservas activas ya vencidas, servidas por el índice (status, expires_at)
+    List<InventoryReservation> findByStatusAndExpiresAtBefore(ReservationStatus status,
+                                                              LocalDateTime before,
+                                                              Pageable pageable);
+
+    List<InventoryReservation> findByStatus(ReservationStatus status);
+
+    // Transición de estado compare-and-set: solo una de varias operaciones concurrentes gana
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE InventoryReservation r SET r.status = :to, r.resolvedAt = :now " +
+           "WHERE r.id = :reservationId AND r.status = :from")
+    int transition(@Param("reservationId") Long reservationId,
+                   @Param("from") ReservationStatus from,
+                   @Param("to") ReservationStatus to,
+                   @Param("now") LocalDateTime now);
+}
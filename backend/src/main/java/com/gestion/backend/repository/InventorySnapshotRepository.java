@@ -0,0 +1,19 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    // Último snapshot de un item en o antes de un instante
+    Optional<InventorySnapshot> findFirstByItemIdAndAsOfLessThanEqualOrderByAsOfDesc(Long itemId, LocalDateTime asOf);
+
+    @Query("SELECT MAX(s.asOf) FROM InventorySnapshot s")
+    Optional<LocalDateTime> findLatestAsOf();
+}
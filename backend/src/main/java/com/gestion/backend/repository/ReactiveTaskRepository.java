@@ -0,0 +1,52 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.entity.TaskRecord;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Las consultas de lectura de TaskRepository, sobre R2DBC
+@Repository
+public interface ReactiveTaskRepository extends ReactiveCrudRepository<TaskRecord, Long> {
+
+    Flux<TaskRecord> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    Flux<TaskRecord> findByUserIdAndStatusOrderByCreatedAtDesc(Long userId, TaskStatus status);
+
+    Flux<TaskRecord> findByUserIdAndPriorityOrderByCreatedAtDesc(Long userId, TaskPriority priority);
+
+    Mono<TaskRecord> findByIdAndUserId(Long taskId, Long userId);
+
+    Mono<Long> countByUserIdAndStatus(Long userId, TaskStatus status);
+
+    Mono<Long> countByUserId(Long userId);
+
+    @Query("SELECT * FROM tasks WHERE user_id = :userId AND status = 'PENDING' AND recurrence IS NULL AND due_date BETWEEN :startDate AND :endDate ORDER BY due_date ASC")
+    Flux<TaskRecord> findUpcomingTasks(@Param("userId") Long userId,
+                                       @Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT * FROM tasks WHERE user_id = :userId AND (LOWER(title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) ORDER BY created_at DESC")
+    Flux<TaskRecord> findByUserIdAndTitleOrDescriptionContaining(@Param("userId") Long userId,
+                                                                 @Param("searchTerm") String searchTerm);
+
+    @Query("SELECT * FROM tasks WHERE user_id = :userId AND status <> 'COMPLETED' AND status <> 'CANCELLED' AND recurrence IS NULL AND due_date < :currentDate ORDER BY due_date ASC")
+    Flux<TaskRecord> findOverdueTasks(@Param("userId") Long userId, @Param("currentDate") LocalDateTime currentDate);
+
+    @Query("SELECT COUNT(*) FROM tasks WHERE user_id = :userId AND status <> 'COMPLETED' AND status <> 'CANCELLED' AND recurrence IS NULL AND due_date < :currentDate")
+    Mono<Long> countOverdueTasks(@Param("userId") Long userId, @Param("currentDate") LocalDateTime currentDate);
+
+    // Las terminadas archivadas siguen contando en las estadísticas
+    @Query("SELECT COUNT(*) FROM archived_tasks WHERE user_id = :userId")
+    Mono<Long> countArchivedByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT COUNT(*) FROM archived_tasks WHERE user_id = :userId AND status = :status")
+    Mono<Long> countArchivedByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
+}
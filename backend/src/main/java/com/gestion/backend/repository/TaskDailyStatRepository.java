@@ -0,0 +1,49 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.TaskDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskDailyStatRepository extends JpaRepository<TaskDailyStat, Long> {
+
+    boolean existsByUserId(Long userId);
+
+    // Valores heredados por el primer día de la ventana
+    Optional<TaskDailyStat> findFirstByUserIdAndStatDateLessThanOrderByStatDateDesc(Long userId, LocalDate date);
+
+    List<TaskDailyStat> findByUserIdAndStatDateBetweenOrderByStatDateAsc(Long userId, LocalDate from, LocalDate to);
+
+    // Suma un delta a la fila del día; si aún no existe, parte de la última fila anterior.
+    // La actualización es relativa, así que dos transacciones concurrentes no se pisan.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO task_daily_stats (user_id, stat_date, open_count, completed_count) " +
+                   "SELECT :userId, :day, " +
+                   "COALESCE((SELECT s.open_count FROM task_daily_stats s WHERE s.user_id = :userId AND s.stat_date < :day ORDER BY s.stat_date DESC LIMIT 1), 0) + :openDelta, " +
+                   "COALESCE((SELECT s.completed_count FROM task_daily_stats s WHERE s.user_id = :userId AND s.stat_date < :day ORDER BY s.stat_date DESC LIMIT 1), 0) + :completedDelta " +
+                   "FROM DUAL " +
+                   "ON DUPLICATE KEY UPDATE open_count = open_count + :openDelta, completed_count = completed_count + :completedDelta",
+           nativeQuery = true)
+    int addDelta(@Param("userId") Long userId,
+                 @Param("day") LocalDate day,
+                 @Param("openDelta") long openDelta,
+                 @Param("completedDelta") long completedDelta);
+
+    // Inserción de la reconstrucción inicial; solo la hace quien reclama task_history_seeds
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO task_daily_stats (user_id, stat_date, open_count, completed_count) " +
+                   "VALUES (:userId, :day, :openCount, :completedCount) " +
+                   "ON DUPLICATE KEY UPDATE open_count = VALUES(open_count), completed_count = VALUES(completed_count)",
+           nativeQuery = true)
+    int upsert(@Param("userId") Long userId,
+               @Param("day") LocalDate day,
+               @Param("openCount") long openCount,
+               @Param("completedCount") long completedCount);
+}
@@ -0,0 +1,20 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.TaskHistorySeed;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TaskHistorySeedRepository extends JpaRepository<TaskHistorySeed, Long> {
+
+    // 1 si esta transacción se queda la siembra; 0 si otra ya la hizo (o la hace y confirma)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO task_history_seeds (user_id, seeded_at) VALUES (:userId, :now)",
+           nativeQuery = true)
+    int claim(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,28 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.TaskLeadTimeBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TaskLeadTimeBucketRepository extends JpaRepository<TaskLeadTimeBucket, Long> {
+
+    // Histograma agregado de un rango de días: [bucketIndex, count]; priority nula = todas
+    @Query("SELECT b.bucketIndex, SUM(b.taskCount) FROM TaskLeadTimeBucket b " +
+           "WHERE b.bucketDay >= :from AND b.bucketDay < :to AND (:priority IS NULL OR b.priority = :priority) " +
+           "GROUP BY b.bucketIndex ORDER BY b.bucketIndex")
+    List<Object[]> sumByBucket(@Param("from") LocalDate from,
+                               @Param("to") LocalDate to,
+                               @Param("priority") TaskPriority priority);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM TaskLeadTimeBucket b WHERE b.bucketDay >= :from AND b.bucketDay < :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
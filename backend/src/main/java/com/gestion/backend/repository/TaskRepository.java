@@ -3,17 +3,22 @@ package com.gestion.backend.repository;
 import com.gestion.backend.entity.Task;
 import com.gestion.backend.entity.Task.TaskStatus;
 import com.gestion.backend.entity.Task.TaskPriority;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+// JpaSpecificationExecutor: consultas combinadas de TaskSpecifications
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
     
     // Buscar todas las tareas de un usuario
     List<Task> findByUserIdOrderByCreatedAtDesc(Long userId);
@@ -27,14 +32,29 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     // Buscar una tarea específica de un usuario
     Optional<Task> findByIdAndUserId(Long taskId, Long userId);
     
+    List<Task> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    
     // Contar tareas por estado y usuario
     long countByUserIdAndStatus(Long userId, TaskStatus status);
     
     // Contar todas las tareas de un usuario
     long countByUserId(Long userId);
     
-    // Buscar tareas pendientes con fecha límite próxima
-    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.status = 'PENDING' AND t.dueDate BETWEEN :startDate AND :endDate ORDER BY t.dueDate ASC")
+    // Fila ya materializada de una ocurrencia de una serie
+    Optional<Task> findBySeriesIdAndOccurrenceDate(Long seriesId, LocalDateTime occurrenceDate);
+    
+    // Serie bloqueada mientras se materializa una ocurrencia, para no dejarla huérfana si se borra a la vez
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.id = :taskId AND t.user.id = :userId")
+    Optional<Task> findByIdAndUserIdForUpdate(@Param("taskId") Long taskId, @Param("userId") Long userId);
+    
+    // Lectura con bloqueo: ve también las ocurrencias confirmadas después de empezar la transacción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.seriesId = :seriesId")
+    List<Task> findBySeriesIdForUpdate(@Param("seriesId") Long seriesId);
+    
+    // Buscar tareas pendientes con fecha límite próxima (las series recurrentes aportan sus ocurrencias aparte)
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.status = 'PENDING' AND t.recurrence IS NULL AND t.dueDate BETWEEN :startDate AND :endDate ORDER BY t.dueDate ASC")
     List<Task> findUpcomingTasks(@Param("userId") Long userId, 
                                 @Param("startDate") LocalDateTime startDate, 
                                 @Param("endDate") LocalDateTime endDate);
@@ -44,7 +64,16 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findByUserIdAndTitleOrDescriptionContaining(@Param("userId") Long userId, 
                                                           @Param("searchTerm") String searchTerm);
     
-    // Buscar tareas vencidas
-    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.status != 'COMPLETED' AND t.status != 'CANCELLED' AND t.dueDate < :currentDate ORDER BY t.dueDate ASC")
+    // Buscar tareas vencidas (sin las series recurrentes: su dueDate es solo la primera ocurrencia)
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.status != 'COMPLETED' AND t.status != 'CANCELLED' AND t.recurrence IS NULL AND t.dueDate < :currentDate ORDER BY t.dueDate ASC")
     List<Task> findOverdueTasks(@Param("userId") Long userId, @Param("currentDate") LocalDateTime currentDate);
+    
+    // Rangos globales para el backfill de analíticas (índices sobre created_at, completed_at y status+updated_at)
+    List<Task> findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(LocalDateTime from, LocalDateTime to);
+    
+    List<Task> findByStatusAndCompletedAtGreaterThanEqualAndCompletedAtLessThan(TaskStatus status, LocalDateTime from, LocalDateTime to);
+    
+    List<Task> findByStatusAndUpdatedAtGreaterThanEqualAndUpdatedAtLessThan(TaskStatus status, LocalDateTime from, LocalDateTime to);
+    
+    Optional<Task> findFirstByOrderByCreatedAtAsc();
 }
@@ -0,0 +1,37 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.entity.TaskRollup;
+import com.gestion.backend.entity.TaskRollup.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TaskRollupRepository extends JpaRepository<TaskRollup, Long> {
+
+    // Serie temporal de un rango, todas las prioridades
+    List<TaskRollup> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+        Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    // Totales por prioridad en un rango: [priority, completed, completedLate, leadTimeMinutes, created, cancelled]
+    @Query("SELECT r.priority, SUM(r.completedCount), SUM(r.completedLateCount), SUM(r.leadTimeMinutesSum), " +
+           "SUM(r.createdCount), SUM(r.cancelledCount) FROM TaskRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.priority")
+    List<Object[]> sumByPriority(@Param("granularity") Granularity granularity,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+
+    // Usado por el backfill antes de reescribir un tramo; con la granularidad recorre solo ese
+    // tramo de uk_task_rollups_bucket
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM TaskRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteRange(@Param("granularity") Granularity granularity,
+                    @Param("from") LocalDateTime from,
+                    @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,124 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.dto.TaskQueryRequest;
+import com.gestion.backend.dto.TaskQueryRequest.SortOrder;
+import com.gestion.backend.entity.Task;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+// Traduce TaskQueryRequest a una única consulta sobre tasks: todos los criterios van en el
+// WHERE y la paginación es por clave (fecha del orden, id), sin OFFSET ni consulta de conteo.
+// Con user_id siempre fijado, idx_tasks_user_created_at e idx_tasks_user_due_date sirven el
+// orden y el corte del cursor (InnoDB añade el id a cada entrada del índice secundario).
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> matching(Long userId, TaskQueryRequest query, Cursor after) {
+        return (root, criteria, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("user").get("id"), userId));
+            if (query.getStatus() != null && !query.getStatus().isEmpty()) {
+                predicates.add(root.get("status").in(query.getStatus()));
+            }
+            if (query.getPriority() != null && !query.getPriority().isEmpty()) {
+                predicates.add(root.get("priority").in(query.getPriority()));
+            }
+            Path<LocalDateTime> dueDate = root.get("dueDate");
+            Path<LocalDateTime> createdAt = root.get("createdAt");
+            range(cb, predicates, dueDate, query.getDueFrom(), query.getDueTo());
+            range(cb, predicates, createdAt, query.getCreatedFrom(), query.getCreatedTo());
+            if (query.getText() != null && !query.getText().isBlank()) {
+                String pattern = "%" + escapeLike(query.getText().trim().toLowerCase(Locale.ROOT)) + "%";
+                predicates.add(cb.or(
+                    cb.like(cb.lower(root.get("title")), pattern, '\\'),
+                    cb.like(cb.lower(root.get("description")), pattern, '\\')));
+            }
+
+            SortOrder sort = sortOf(query);
+            Path<LocalDateTime> sortKey = isDueSort(sort) ? dueDate : createdAt;
+            if (isDueSort(sort)) {
+                predicates.add(cb.isNotNull(dueDate));
+            }
+            if (after != null) {
+                Path<Long> id = root.get("id");
+                // (clave, id) estrictamente después del último de la página anterior
+                predicates.add(isDescending(sort)
+                    ? cb.or(cb.lessThan(sortKey, after.value()),
+                            cb.and(cb.equal(sortKey, after.value()), cb.lessThan(id, after.id())))
+                    : cb.or(cb.greaterThan(sortKey, after.value()),
+                            cb.and(cb.equal(sortKey, after.value()), cb.greaterThan(id, after.id()))));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Sort sort(TaskQueryRequest query) {
+        SortOrder sort = sortOf(query);
+        String key = isDueSort(sort) ? "dueDate" : "createdAt";
+        Sort.Direction direction = isDescending(sort) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(direction, key, "id");
+    }
+
+    // Cursor para continuar tras esta tarea con el orden pedido
+    public static Cursor cursorAfter(Task task, TaskQueryRequest query) {
+        return new Cursor(isDueSort(sortOf(query)) ? task.getDueDate() : task.getCreatedAt(), task.getId());
+    }
+
+    private static SortOrder sortOf(TaskQueryRequest query) {
+        return query.getSort() != null ? query.getSort() : SortOrder.CREATED_DESC;
+    }
+
+    private static boolean isDueSort(SortOrder sort) {
+        return sort == SortOrder.DUE_ASC || sort == SortOrder.DUE_DESC;
+    }
+
+    private static boolean isDescending(SortOrder sort) {
+        return sort == SortOrder.CREATED_DESC || sort == SortOrder.DUE_DESC;
+    }
+
+    private static void range(CriteriaBuilder cb, List<Predicate> predicates, Path<LocalDateTime> path,
+                              LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(path, to));
+        }
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Opaco para el cliente: base64 de "fecha|id"
+    public record Cursor(LocalDateTime value, Long id) {
+
+        public String encode() {
+            String raw = value + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
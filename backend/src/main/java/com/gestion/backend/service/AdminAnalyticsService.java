@@ -0,0 +1,327 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.BackfillResponse;
+import com.gestion.backend.dto.LeadTimeStatsResponse;
+import com.gestion.backend.dto.OverdueRateResponse;
+import com.gestion.backend.dto.ThroughputPoint;
+import com.gestion.backend.entity.ArchivedTask;
+import com.gestion.backend.entity.Task;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.entity.TaskLeadTimeBucket;
+import com.gestion.backend.entity.TaskRollup;
+import com.gestion.backend.entity.TaskRollup.Granularity;
+import com.gestion.backend.repository.ArchivedTaskRepository;
+import com.gestion.backend.repository.TaskLeadTimeBucketRepository;
+import com.gestion.backend.repository.TaskRepository;
+import com.gestion.backend.repository.TaskRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Informes globales de tareas para administradores. Las consultas leen solo las tablas
+// de agregados; la tabla de tareas se lee únicamente desde el backfill, por días y en paralelo.
+// Los agregados viven junto a las tareas de cada shard y los informes suman todos los shards.
+// Backfill y puesta al día se ejecutan en un solo nodo a la vez (candado en job_locks).
+@Service
+public class AdminAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminAnalyticsService.class);
+    private static final String BACKFILL_LOCK = "task-rollup-backfill";
+
+    private final TaskRollupRepository rollupRepository;
+    private final TaskLeadTimeBucketRepository leadTimeRepository;
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskRollupRecorder rollupRecorder;
+    private final ShardRouter shardRouter;
+    private final JobLocks jobLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.analytics.backfill.parallelism:4}")
+    private int parallelism;
+
+    @Value("${application.analytics.backfill.max-days:400}")
+    private int maxBackfillDays;
+
+    @Value("${application.analytics.backfill.on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${application.analytics.max-hourly-days:31}")
+    private int maxHourlyDays;
+
+    public AdminAnalyticsService(TaskRollupRepository rollupRepository,
+                                 TaskLeadTimeBucketRepository leadTimeRepository,
+                                 TaskRepository taskRepository,
+                                 ArchivedTaskRepository archivedTaskRepository,
+                                 TaskRollupRecorder rollupRecorder,
+                                 ShardRouter shardRouter,
+                                 JobLocks jobLocks,
+                                 PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.leadTimeRepository = leadTimeRepository;
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.rollupRecorder = rollupRecorder;
+        this.shardRouter = shardRouter;
+        this.jobLocks = jobLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Tareas creadas, completadas y canceladas por hora o día (rango de días inclusivo)
+    public List<ThroughputPoint> getThroughput(LocalDate from, LocalDate to, Granularity granularity) {
+        validateRange(from, to);
+        if (granularity == Granularity.HOUR && ChronoUnit.DAYS.between(from, to) >= maxHourlyDays) {
+            throw new IllegalArgumentException("Hourly ranges are limited to " + maxHourlyDays + " days");
+        }
+        List<TaskRollup> rows = fromAllShards(() -> rollupRepository
+            .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                granularity, from.atStartOfDay(), to.plusDays(1).atStartOfDay()));
+
+        // Una fila por prioridad, cubeta y shard: se suman todas
+        Map<LocalDateTime, ThroughputPoint> points = new TreeMap<>();
+        for (TaskRollup row : rows) {
+            ThroughputPoint point = points.computeIfAbsent(row.getBucketStart(), b -> new ThroughputPoint(b, 0, 0, 0));
+            point.setCreated(point.getCreated() + row.getCreatedCount());
+            point.setCompleted(point.getCompleted() + row.getCompletedCount());
+            point.setCancelled(point.getCancelled() + row.getCancelledCount());
+        }
+        return new ArrayList<>(points.values());
+    }
+
+    public LeadTimeStatsResponse getLeadTime(LocalDate from, LocalDate to, TaskPriority priority) {
+        validateRange(from, to);
+        long[] counts = new long[TaskLeadTimeBucket.BUCKETS];
+        long total = 0;
+        for (Object[] row : fromAllShards(() -> leadTimeRepository.sumByBucket(from, to.plusDays(1), priority))) {
+            int index = ((Number) row[0]).intValue();
+            long count = ((Number) row[1]).longValue();
+            counts[index] += count;
+            total += count;
+        }
+
+        long leadTimeSum = 0;
+        long completed = 0;
+        for (Object[] row : sumByPriority(from, to)) {
+            if (priority == null || priority == row[0]) {
+                completed += ((Number) row[1]).longValue();
+                leadTimeSum += ((Number) row[3]).longValue();
+            }
+        }
+
+        return new LeadTimeStatsResponse(from, to, priority, completed,
+            completed > 0 ? (double) leadTimeSum / completed : 0,
+            percentile(counts, total, 0.50),
+            percentile(counts, total, 0.90),
+            percentile(counts, total, 0.99));
+    }
+
+    // Proporción de tareas completadas después de su fecha límite, por prioridad
+    public List<OverdueRateResponse> getOverdueRates(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        Map<TaskPriority, long[]> totals = new EnumMap<>(TaskPriority.class);
+        for (TaskPriority priority : TaskPriority.values()) {
+            totals.put(priority, new long[2]);
+        }
+        for (Object[] row : sumByPriority(from, to)) {
+            long[] total = totals.get((TaskPriority) row[0]);
+            total[0] += ((Number) row[1]).longValue();
+            total[1] += ((Number) row[2]).longValue();
+        }
+        List<OverdueRateResponse> rates = new ArrayList<>();
+        totals.forEach((priority, total) -> rates.add(
+            new OverdueRateResponse(priority, total[0], total[1], total[0] > 0 ? (double) total[1] / total[0] : 0)));
+        return rates;
+    }
+
+    public BackfillResponse backfill(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        if (ChronoUnit.DAYS.between(from, to) >= maxBackfillDays) {
+            throw new IllegalArgumentException("Backfill ranges are limited to " + maxBackfillDays + " days");
+        }
+        return runBackfill(from, to, false);
+    }
+
+    // Puesta al día al arrancar por primera vez con datos previos a los agregados. Si arrancan
+    // varios nodos a la vez, uno la hace y los demás la saltan.
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (!backfillOnStartup || hasRollups()) {
+            return;
+        }
+        shardRouter.getShardNames().stream()
+            .map(shard -> shardRouter.callInShard(shard,
+                () -> taskRepository.findFirstByOrderByCreatedAtAsc().map(Task::getCreatedAt).orElse(null)))
+            .filter(Objects::nonNull)
+            .min(Comparator.naturalOrder())
+            .ifPresent(first -> Thread.ofPlatform().name("analytics-catch-up").daemon(true).start(() -> {
+                try {
+                    runBackfill(first.toLocalDate(), LocalDate.now(), true);
+                } catch (IllegalStateException e) {
+                    logger.info("Analytics catch-up skipped: {}", e.getMessage());
+                } catch (RuntimeException e) {
+                    logger.warn("Analytics catch-up failed", e);
+                }
+            }));
+    }
+
+    // Reconstruye cada día y shard en su propia transacción (borrar y reescribir el tramo), con
+    // varios días en paralelo. La transacción exterior solo retiene el candado entre nodos.
+    private BackfillResponse runBackfill(LocalDate from, LocalDate to, boolean onlyIfEmpty) {
+        return transactionTemplate.execute(status -> {
+            if (!jobLocks.tryLock(BACKFILL_LOCK)) {
+                throw new IllegalStateException("A backfill is already running");
+            }
+            // Otro nodo pudo terminar la puesta al día entre la comprobación y el candado
+            if (onlyIfEmpty && hasRollups()) {
+                return null;
+            }
+            return rebuildDays(from, to);
+        });
+    }
+
+    private BackfillResponse rebuildDays(LocalDate from, LocalDate to) {
+        long started = System.currentTimeMillis();
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        AtomicInteger threadIndex = new AtomicInteger();
+        long scanned = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                r -> Thread.ofPlatform().name("analytics-backfill-" + threadIndex.incrementAndGet()).daemon(true).unstarted(r))) {
+            List<Future<Integer>> results = new ArrayList<>(days.size());
+            for (LocalDate day : days) {
+                results.add(executor.submit(() -> rebuildDay(day)));
+            }
+            for (Future<Integer> result : results) {
+                scanned += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Backfill interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Backfill failed", e.getCause());
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        logger.info("Backfilled task rollups for {} days ({} tasks) in {} ms", days.size(), scanned, elapsed);
+        return new BackfillResponse(from, to, days.size(), scanned, elapsed);
+    }
+
+    // Reescribe el tramo del día en cada shard, en la misma transacción que lo lee. El DELETE va
+    // primero y bloquea las cubetas del día: un cambio de tarea que confirma durante la
+    // reconstrucción o ya está en la lectura, o espera en su upsert y se suma encima.
+    private int rebuildDay(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+        int scanned = 0;
+        for (String shard : shardRouter.getShardNames()) {
+            scanned += shardRouter.callInShard(shard, () -> {
+                rollupRepository.deleteRange(Granularity.HOUR, start, end);
+                rollupRepository.deleteRange(Granularity.DAY, start, end);
+                leadTimeRepository.deleteRange(day, day.plusDays(1));
+                TaskRollupDeltas deltas = new TaskRollupDeltas();
+                int count = scanDay(start, end, deltas);
+                rollupRecorder.write(deltas.drainRollups(), deltas.drainHistogram());
+                return count;
+            });
+        }
+        return scanned;
+    }
+
+    private int scanDay(LocalDateTime start, LocalDateTime end, TaskRollupDeltas deltas) {
+        List<Task> created = taskRepository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(start, end);
+        for (Task task : created) {
+            deltas.created(task.getCreatedAt(), task.getPriority(), 1);
+        }
+        List<Task> completed = taskRepository.findByStatusAndCompletedAtGreaterThanEqualAndCompletedAtLessThan(
+            TaskStatus.COMPLETED, start, end);
+        for (Task task : completed) {
+            deltas.completed(task.getCreatedAt(), task.getCompletedAt(), task.getDueDate(), task.getPriority(), 1);
+        }
+        List<Task> cancelled = taskRepository.findByStatusAndUpdatedAtGreaterThanEqualAndUpdatedAtLessThan(
+            TaskStatus.CANCELLED, start, end);
+        for (Task task : cancelled) {
+            deltas.cancelled(task.getUpdatedAt(), task.getPriority(), 1);
+        }
+
+        // Las tareas archivadas siguen formando parte del histórico
+        List<ArchivedTask> archivedCreated = archivedTaskRepository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(start, end);
+        for (ArchivedTask task : archivedCreated) {
+            deltas.created(task.getCreatedAt(), task.getPriority(), 1);
+        }
+        List<ArchivedTask> archivedCompleted = archivedTaskRepository.findByStatusAndCompletedAtGreaterThanEqualAndCompletedAtLessThan(
+            TaskStatus.COMPLETED, start, end);
+        for (ArchivedTask task : archivedCompleted) {
+            deltas.completed(task.getCreatedAt(), task.getCompletedAt(), task.getDueDate(), task.getPriority(), 1);
+        }
+        List<ArchivedTask> archivedCancelled = archivedTaskRepository.findByStatusAndUpdatedAtGreaterThanEqualAndUpdatedAtLessThan(
+            TaskStatus.CANCELLED, start, end);
+        for (ArchivedTask task : archivedCancelled) {
+            deltas.cancelled(task.getUpdatedAt(), task.getPriority(), 1);
+        }
+        return created.size() + completed.size() + cancelled.size()
+            + archivedCreated.size() + archivedCompleted.size() + archivedCancelled.size();
+    }
+
+    private boolean hasRollups() {
+        return shardRouter.getShardNames().stream()
+            .anyMatch(shard -> shardRouter.callInShard(shard, () -> rollupRepository.count() > 0));
+    }
+
+    private List<Object[]> sumByPriority(LocalDate from, LocalDate to) {
+        return fromAllShards(() -> rollupRepository.sumByPriority(Granularity.DAY, from.atStartOfDay(), to.plusDays(1).atStartOfDay()));
+    }
+
+    private <T> List<T> fromAllShards(Supplier<List<T>> query) {
+        List<T> rows = new ArrayList<>();
+        for (String shard : shardRouter.getShardNames()) {
+            rows.addAll(shardRouter.callInShard(shard, query));
+        }
+        return rows;
+    }
+
+    // Percentil interpolando linealmente dentro de la cubeta que lo contiene
+    private static long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        double rank = quantile * total;
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && cumulative + counts[i] >= rank) {
+                double fraction = (rank - cumulative) / counts[i];
+                long lower = TaskLeadTimeBucket.lowerBound(i);
+                long upper = TaskLeadTimeBucket.upperBound(i);
+                return Math.round(lower + fraction * (upper - lower));
+            }
+            cumulative += counts[i];
+        }
+        return TaskLeadTimeBucket.lowerBound(counts.length - 1);
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Invalid date range");
+        }
+    }
+}
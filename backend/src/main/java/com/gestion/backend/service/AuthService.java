@@ -2,6 +2,7 @@ package com.gestion.backend.service;
 
 import com.gestion.backend.dto.AuthResponse;
 import com.gestion.backend.dto.LoginRequest;
+import com.gestion.backend.dto.RefreshTokenRequest;
 import com.gestion.backend.dto.RegisterRequest;
 import com.gestion.backend.entity.User;
 import com.gestion.backend.repository.UserRepository;
@@ -19,6 +20,9 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ShardRouter shardRouter;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
     
     public AuthResponse register(RegisterRequest request) {
         // Validate passwords match
@@ -44,24 +48,56 @@ public class AuthService {
         user.setRole(User.Role.USER);
         
         var savedUser = userRepository.save(user);
+        // Con sharding activo decide (y fija) el shard de sus tareas
+        shardRouter.placeNewUser(savedUser);
         var jwtToken = jwtService.generateToken(user);
         
-        return new AuthResponse(jwtToken, savedUser);
+        return new AuthResponse(jwtToken, refreshTokenService.issue(savedUser), savedUser);
     }
     
     public AuthResponse authenticate(LoginRequest request) {
-        authenticationManager.authenticate(
+        var authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getUsername(),
                         request.getPassword()
                 )
         );
         
-        var user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("Usuario o contraseña invalidos"));
+        // El principal ya es el User que cargó el proveedor: no hace falta buscarlo otra vez
+        var user = (User) authentication.getPrincipal();
         
         var jwtToken = jwtService.generateToken(user);
         
-        return new AuthResponse(jwtToken, user);
+        return new AuthResponse(jwtToken, refreshTokenService.issue(user), user);
+    }
+    
+    // Renueva el par de tokens sin contraseña ni BCrypt
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        var rotation = refreshTokenService.rotate(request.getRefreshToken());
+        return new AuthResponse(rotation.accessToken(), rotation.refreshToken(), rotation.user());
+    }
+    
+    // Revoca solo el token con el que se hace la petición (y la familia del refresh token si llega)
+    public void logout(String token, String refreshToken, User user) {
+        tokenRevocationService.revoke(jwtService.parseToken(token), token, user.getId());
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revokeFamily(refreshToken, user.getId());
+        }
+    }
+    
+    // Cerrar sesión en todos los dispositivos: invalida todo token emitido hasta ahora
+    public void logoutAll(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setTokensValidAfter(TokenRevocationService.revokeAllBefore());
+        userRepository.save(user);
+    }
+    
+    // Revocación administrativa de todas las sesiones de un usuario
+    public void revokeAllTokens(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setTokensValidAfter(TokenRevocationService.revokeAllBefore());
+        userRepository.save(user);
     }
 }
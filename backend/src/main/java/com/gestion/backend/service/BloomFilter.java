@@ -0,0 +1,57 @@
+package com.gestion.backend.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom sobre cadenas: sin falsos negativos y con una tasa de falsos positivos
+// acotada para el tamaño previsto. Lecturas sin bloqueos; no admite borrados, así que
+// quien lo usa lo reconstruye cuando sobran elementos.
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int expected = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = Math.max(64, bits);
+        this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.numBits = (long) words.length() * 64;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expected * Math.log(2)));
+    }
+
+    void put(String value) {
+        long h1 = hash(value, 0xCBF29CE484222325L);
+        long h2 = hash(value, 0x84222325CBF29CE4L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            words.getAndUpdate(word, current -> current | mask);
+        }
+    }
+
+    boolean mightContain(String value) {
+        long h1 = hash(value, 0xCBF29CE484222325L);
+        long h2 = hash(value, 0x84222325CBF29CE4L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a con el finalizador de splitmix64 para repartir bien los bits
+    private static long hash(String value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,105 @@
+package com.gestion.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+// Límite adaptativo de peticiones en vuelo (AIMD). Cada respuesta rápida sube el límite en
+// 1/límite (≈ +1 por ronda completa) mientras se esté usando; una lenta o fallida lo multiplica
+// por el factor de retroceso, como mucho una vez por ventana para que las peticiones lentas
+// que ya estaban en vuelo no lo hundan en cadena. Lo que no cabe se rechaza al momento.
+// Las lecturas solo pueden ocupar parte del límite, las escrituras algo más y /api/auth
+// todo: con sobrecarga se descartan primero las lecturas.
+@Service
+public class ConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    // En orden de descarte
+    public enum Priority { READ, WRITE, AUTH }
+
+    private final boolean enabled;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoff;
+    private final double readShare;
+    private final double writeShare;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+
+    public ConcurrencyLimiter(@Value("${application.concurrency.enabled:true}") boolean enabled,
+                              @Value("${application.concurrency.initial-limit:50}") int initialLimit,
+                              @Value("${application.concurrency.min-limit:10}") int minLimit,
+                              @Value("${application.concurrency.max-limit:400}") int maxLimit,
+                              @Value("${application.concurrency.latency-threshold-ms:250}") long latencyThresholdMillis,
+                              @Value("${application.concurrency.backoff:0.9}") double backoff,
+                              @Value("${application.concurrency.read-share:0.8}") double readShare,
+                              @Value("${application.concurrency.write-share:0.9}") double writeShare) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdMillis * 1_000_000L;
+        this.backoff = backoff;
+        this.readShare = readShare;
+        this.writeShare = writeShare;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean tryAcquire(Priority priority) {
+        double allowed = getLimit() * switch (priority) {
+            case READ -> readShare;
+            case WRITE -> writeShare;
+            case AUTH -> 1.0;
+        };
+        while (true) {
+            int current = inFlight.get();
+            if (current >= Math.max(1, (int) allowed)) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Solo para peticiones admitidas por tryAcquire. La latencia de /api/auth la marca el pool
+    // de BCrypt, no la base de datos: ahí solo cuentan los fallos
+    public void release(Priority priority, long latencyNanos, boolean failed) {
+        int before = inFlight.getAndDecrement();
+        boolean slow = priority != Priority.AUTH && latencyNanos > latencyThresholdNanos;
+        if (failed || slow) {
+            long now = System.nanoTime();
+            long last = lastDecrease.get();
+            if (now - last >= latencyThresholdNanos && lastDecrease.compareAndSet(last, now)) {
+                double updated = update(limit -> Math.max(minLimit, limit * backoff));
+                logger.debug("Concurrency limit decreased to {} ({} in flight)", (int) updated, before);
+            }
+        } else if (before * 2 >= getLimit()) {
+            update(limit -> Math.min(maxLimit, limit + 1.0 / limit));
+        }
+    }
+
+    public double getLimit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private double update(DoubleUnaryOperator operator) {
+        return Double.longBitsToDouble(limitBits.updateAndGet(
+            bits -> Double.doubleToLongBits(operator.applyAsDouble(Double.longBitsToDouble(bits)))));
+    }
+}
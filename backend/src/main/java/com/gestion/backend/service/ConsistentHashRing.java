@@ -0,0 +1,38 @@
+package com.gestion.backend.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Anillo de hash consistente con nodos virtuales: añadir un shard al anillo solo cambia
+// la ubicación de ~1/N de los usuarios nuevos. Solo decide dónde colocar usuarios recién
+// registrados; la ubicación efectiva siempre queda fijada en user_shard_assignments.
+class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(mix(((long) shard.hashCode() << 32) | i), shard);
+            }
+        }
+    }
+
+    String shardFor(long key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("Hash ring is empty");
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    // splitmix64: reparte bien claves consecutivas como los ids de usuario
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
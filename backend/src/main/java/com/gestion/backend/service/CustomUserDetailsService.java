@@ -1,21 +1,81 @@
 package com.gestion.backend.service;
 
+import com.gestion.backend.entity.User;
 import com.gestion.backend.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// El filtro JWT carga el usuario en cada petición: se cachea por username. Cualquier
+// escritura del usuario en cualquier nodo lo invalida por el bus; el TTL es solo un respaldo.
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserRepository userRepository;
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+    // Una lectura que empezó antes de una invalidación no puede volver a cachear el valor viejo
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${application.cache.users.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Value("${application.cache.users.max-size:10000}")
+    private int maxSize;
+    
+    public CustomUserDetailsService(UserRepository userRepository, InvalidationBus invalidationBus) {
+        this.userRepository = userRepository;
+        invalidationBus.subscribe(InvalidationBus.USERS, new InvalidationBus.Listener() {
+            @Override
+            public void invalidate(String key) {
+                generation.incrementAndGet();
+                cache.values().removeIf(cached -> String.valueOf(cached.user().getId()).equals(key));
+            }
+
+            @Override
+            public void invalidateAll() {
+                generation.incrementAndGet();
+                cache.clear();
+            }
+        });
+    }
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        long now = System.currentTimeMillis();
+        CachedUser cached = cache.get(username);
+        if (cached != null && now - cached.loadedAt() < ttlMillis) {
+            return cached.user();
+        }
+
+        long observed = generation.get();
+        User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        if (cache.size() >= maxSize) {
+            cache.clear();
+        }
+        cache.put(username, new CachedUser(user, now));
+        if (generation.get() != observed) {
+            cache.remove(username);
+        }
+        return user;
+    }
+
+    // Rehash en el login (coste de BCrypt cambiado): la escritura invalida la caché por el bus
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return userRepository.save(user);
+    }
+
+    private record CachedUser(User user, long loadedAt) {
     }
 }
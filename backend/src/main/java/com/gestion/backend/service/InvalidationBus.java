@@ -0,0 +1,191 @@
+package com.gestion.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Invalidación de cachés en memoria entre réplicas. Una escritura publica (región, clave):
+// con un transporte transaccional el mensaje se guarda en la misma transacción que el
+// cambio y se aplica en este nodo cuando confirma. Sin transacción de escritura se envía al
+// confirmar y lo que no se pudo enviar queda en una cola en memoria que se reintenta.
+// Arranca como SmartLifecycle, antes del servidor web y fuera del refresco del contexto
+// (el entrenamiento CDS de Dockerfile.faststart se detiene ahí sin tocar la base).
+@Component
+public class InvalidationBus implements SmartLifecycle {
+
+    // Antes que TokenRevocationService y que el servidor web
+    public static final int PHASE = -100;
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    public static final String USERS = "users";
+    public static final String TASKS = "tasks";
+    public static final String TASK_STATS = "task-stats";
+    public static final String INVENTORY_FACETS = "inventory-facets";
+    public static final String REVOKED_TOKENS = "revoked-tokens";
+
+    private final InvalidationTransport transport;
+    private final String nodeId;
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+    private final Queue<InvalidationMessage> outbox = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private volatile boolean running;
+
+    public InvalidationBus(InvalidationTransport transport,
+                           @Value("${application.cache.invalidation.node-id:}") String nodeId) {
+        this.transport = transport;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    @Override
+    public void start() {
+        transport.start(this::receive);
+        running = true;
+        logger.info("Cache invalidation bus started on node {} using {}", nodeId, transport.getClass().getSimpleName());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void subscribe(String region, Listener listener) {
+        listeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    // Invalida en este nodo y en los demás cuando la transacción actual confirma
+    public void publish(String region, String key) {
+        InvalidationMessage message = new InvalidationMessage(region, key, nodeId);
+        if (writeInTransaction(message)) {
+            TransactionCallbacks.afterCommit(() -> dispatch(region, key));
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            dispatch(region, key);
+            enqueue(message);
+        });
+    }
+
+    // Para cachés que ya se actualizan solas en el nodo que escribe
+    public void publishToOthers(String region, String key) {
+        InvalidationMessage message = new InvalidationMessage(region, key, nodeId);
+        if (!writeInTransaction(message)) {
+            TransactionCallbacks.afterCommit(() -> enqueue(message));
+        }
+    }
+
+    // Reintento de lo que quedó pendiente por un fallo del transporte
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.poll-ms:1000}")
+    public void flushOutbox() {
+        if (!sendLock.tryLock()) {
+            return;
+        }
+        try {
+            while (!outbox.isEmpty()) {
+                List<InvalidationMessage> batch = new ArrayList<>();
+                for (InvalidationMessage message : outbox) {
+                    batch.add(message);
+                    if (batch.size() == 500) {
+                        break;
+                    }
+                }
+                transport.send(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    outbox.poll();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to send {} cache invalidations, will retry", outbox.size(), e);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    void receive(List<InvalidationMessage> messages) {
+        for (InvalidationMessage message : messages) {
+            if (nodeId.equals(message.originNode())) {
+                continue;
+            }
+            if (InvalidationMessage.ALL.equals(message.region())) {
+                listeners.values().forEach(regionListeners -> regionListeners.forEach(this::invalidateAll));
+            } else {
+                dispatch(message.region(), message.key());
+            }
+        }
+    }
+
+    // Se escribe ya y no en beforeCommit: los listeners JPA publican durante el flush del commit,
+    // cuando esas sincronizaciones ya se ejecutaron
+    private boolean writeInTransaction(InvalidationMessage message) {
+        if (!transport.isTransactional() || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        transport.sendInTransaction(List.of(message));
+        return true;
+    }
+
+    private void enqueue(InvalidationMessage message) {
+        outbox.add(message);
+        // Envío inmediato en el hilo que escribe; si otro hilo está enviando, lo recoge él
+        flushOutbox();
+    }
+
+    private void dispatch(String region, String key) {
+        for (Listener listener : listeners.getOrDefault(region, List.of())) {
+            try {
+                if (key == null) {
+                    listener.invalidateAll();
+                } else {
+                    listener.invalidate(key);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Cache listener for region {} failed", region, e);
+            }
+        }
+    }
+
+    private void invalidateAll(Listener listener) {
+        try {
+            listener.invalidateAll();
+        } catch (RuntimeException e) {
+            logger.warn("Cache listener reset failed", e);
+        }
+    }
+
+    public interface Listener {
+
+        void invalidate(String key);
+
+        void invalidateAll();
+    }
+}
@@ -0,0 +1,11 @@
+package com.gestion.backend.service;
+
+// Una invalidación en tránsito. key null invalida toda la región; la región ALL, todas.
+public record InvalidationMessage(String region, String key, String originNode) {
+
+    public static final String ALL = "*";
+
+    public static InvalidationMessage resetAll(String originNode) {
+        return new InvalidationMessage(ALL, null, originNode);
+    }
+}
@@ -0,0 +1,23 @@
+package com.gestion.backend.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Medio por el que viajan las invalidaciones entre nodos. send puede fallar (el bus
+// reintenta); el receptor recibe también los mensajes propios y los descarta.
+public interface InvalidationTransport {
+
+    void send(List<InvalidationMessage> messages);
+
+    // Un transporte transaccional escribe los mensajes en la transacción en curso (bandeja de
+    // salida en la misma base), así que viajan si y solo si esa transacción confirma
+    default boolean isTransactional() {
+        return false;
+    }
+
+    default void sendInTransaction(List<InvalidationMessage> messages) {
+        throw new UnsupportedOperationException("Transport is not transactional");
+    }
+
+    void start(Consumer<List<InvalidationMessage>> receiver);
+}
@@ -0,0 +1,163 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.CategoryFacet;
+import com.gestion.backend.repository.InventoryItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Conteo de items por categoría servido desde memoria. Se construye con un GROUP BY y
+// después se mantiene de forma incremental desde InventoryService, aplicando cada cambio
+// solo cuando su transacción confirma. Una reconstrucción monta el mapa aparte y lo publica
+// de golpe solo si ningún cambio estuvo sin terminar mientras consultaba: uno que confirmara
+// antes del GROUP BY pero se aplicara después contaría dos veces. Si no puede publicarse
+// devuelve su conteo y se vuelve a montar en la siguiente lectura.
+// Los demás nodos reciben una invalidación y reconstruyen el conteo al leer; las lecturas
+// simultáneas comparten una sola reconstrucción.
+@Component
+public class InventoryFacetCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryFacetCache.class);
+
+    private static final String FACETS = "facets";
+
+    // ConcurrentHashMap no admite claves nulas: los items sin categoría van bajo esta clave
+    private static final String UNCATEGORIZED = "\u0000";
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InvalidationBus invalidationBus;
+    // En su propia transacción: la del llamante pudo fijar su vista antes de leer generation
+    private final TransactionTemplate rebuildTransaction;
+    private final SingleFlight<String> rebuilds = new SingleFlight<>(key -> key);
+    // null mientras no hay un conteo válido
+    private volatile Map<String, LongAdder> counts;
+    // Cambia cuando un cambio empieza o termina y con cada invalidación; pending son los
+    // cambios registrados cuya transacción no ha terminado. Bajo el monitor.
+    private long generation;
+    private int pending;
+
+    public InventoryFacetCache(InventoryItemRepository inventoryItemRepository, InvalidationBus invalidationBus,
+                               PlatformTransactionManager transactionManager) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.invalidationBus = invalidationBus;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildTransaction.setReadOnly(true);
+        invalidationBus.subscribe(InvalidationBus.INVENTORY_FACETS, new InvalidationBus.Listener() {
+            @Override
+            public void invalidate(String key) {
+                invalidateAll();
+            }
+
+            @Override
+            public void invalidateAll() {
+                synchronized (InventoryFacetCache.this) {
+                    generation++;
+                    counts = null;
+                }
+                rebuilds.invalidate(FACETS);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    // Devuelve el conteo recién montado aunque no se haya podido publicar
+    public Map<String, LongAdder> rebuild() {
+        long observedGeneration;
+        synchronized (this) {
+            observedGeneration = generation;
+        }
+        Map<String, LongAdder> rebuilt = new ConcurrentHashMap<>();
+        List<Object[]> rows = rebuildTransaction.execute(status -> inventoryItemRepository.countByCategory());
+        for (Object[] row : rows) {
+            counter(rebuilt, (String) row[0]).add((Long) row[1]);
+        }
+        synchronized (this) {
+            // Con generation igual ningún cambio empezó ni terminó durante la consulta, y sin
+            // pendientes tampoco queda ninguno que pudiera estar ya en ella
+            if (generation == observedGeneration && pending == 0) {
+                counts = rebuilt;
+                logger.info("Inventory facet cache loaded with {} categories", rebuilt.size());
+            }
+        }
+        return rebuilt;
+    }
+
+    public List<CategoryFacet> getFacets() {
+        Map<String, LongAdder> current = counts;
+        if (current == null) {
+            current = rebuilds.execute(FACETS, this::rebuild);
+        }
+        return current.entrySet().stream()
+            .filter(e -> e.getValue().sum() > 0)
+            .map(e -> new CategoryFacet(UNCATEGORIZED.equals(e.getKey()) ? null : e.getKey(), e.getValue().sum()))
+            .sorted(Comparator.comparingLong(CategoryFacet::getCount).reversed()
+                .thenComparing(CategoryFacet::getCategory, Comparator.nullsLast(Comparator.naturalOrder())))
+            .collect(Collectors.toList());
+    }
+
+    public void onCreated(String category) {
+        change(() -> apply(category, 1));
+    }
+
+    public void onCategoryChanged(String previous, String current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        change(() -> {
+            apply(previous, -1);
+            apply(current, 1);
+        });
+    }
+
+    public void onDeleted(String category) {
+        change(() -> apply(category, -1));
+    }
+
+    // Se registra dentro de la transacción del cambio, antes de su commit, y se aplica al terminar
+    private void change(Runnable applyCommitted) {
+        synchronized (this) {
+            generation++;
+            pending++;
+        }
+        TransactionCallbacks.afterCompletion(committed -> {
+            synchronized (this) {
+                if (committed) {
+                    applyCommitted.run();
+                }
+                generation++;
+                pending--;
+            }
+            rebuilds.invalidate(FACETS);
+        });
+        invalidationBus.publishToOthers(InvalidationBus.INVENTORY_FACETS, null);
+    }
+
+    // Bajo el monitor
+    private void apply(String category, int delta) {
+        if (counts != null) {
+            counter(counts, category).add(delta);
+        }
+    }
+
+    private static LongAdder counter(Map<String, LongAdder> counts, String category) {
+        return counts.computeIfAbsent(category != null ? category : UNCATEGORIZED, key -> new LongAdder());
+    }
+}
@@ -0,0 +1,117 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.InventoryMovementResponse;
+import com.gestion.backend.dto.StockLevelResponse;
+import com.gestion.backend.entity.InventoryMovement;
+import com.gestion.backend.entity.InventorySnapshot;
+import com.gestion.backend.repository.InventoryItemRepository;
+import com.gestion.backend.repository.InventoryMovementRepository;
+import com.gestion.backend.repository.InventorySnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class InventoryLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedgerService.class);
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String COMPACTION_LOCK = "inventory-snapshots";
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+    private final JobLocks jobLocks;
+
+    // Margen para que confirmen las transacciones de ajuste en curso: occurred_at se fija al
+    // insertar, antes del commit, así que debe superar la duración máxima de esas transacciones
+    @Value("${application.inventory.snapshot.settle-ms:60000}")
+    private long settleMillis;
+
+    public List<InventoryMovementResponse> getMovements(Long itemId, LocalDateTime from, LocalDateTime to, int limit) {
+        requireItem(itemId);
+        LocalDateTime start = from != null ? from : LEDGER_START;
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return inventoryMovementRepository
+            .findByItemIdAndOccurredAtBetweenOrderByOccurredAtDesc(itemId, start, end, PageRequest.of(0, limit))
+            .stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
+    }
+
+    // Stock a una fecha: último snapshot + cola de movimientos, O(snapshot + cola)
+    public StockLevelResponse getStockAsOf(Long itemId, LocalDateTime asOf) {
+        requireItem(itemId);
+        LocalDateTime at = asOf != null ? asOf : LocalDateTime.now();
+
+        Optional<InventorySnapshot> snapshot =
+            inventorySnapshotRepository.findFirstByItemIdAndAsOfLessThanEqualOrderByAsOfDesc(itemId, at);
+        long balance = snapshot
+            .map(s -> s.getBalance() + inventoryMovementRepository.sumQuantityBetween(itemId, s.getAsOf(), at))
+            .orElseGet(() -> inventoryMovementRepository.sumQuantityUpTo(itemId, at));
+
+        return new StockLevelResponse(itemId, at, balance, snapshot.map(InventorySnapshot::getAsOf).orElse(null));
+    }
+
+    // Compactación periódica: un snapshot nuevo por item con movimientos desde la anterior.
+    // Solo inserta filas, así que no compite con los ajustes sobre inventory_items. La marca de
+    // agua es el último snapshot guardado y un solo nodo compacta a la vez; la clave única
+    // (item_id, as_of) impide duplicados aunque el candado fallara.
+    @Scheduled(fixedDelayString = "${application.inventory.snapshot.interval-ms:3600000}",
+               initialDelayString = "${application.inventory.snapshot.initial-delay-ms:300000}")
+    @Transactional
+    public void compactSnapshots() {
+        if (!jobLocks.tryLock(COMPACTION_LOCK)) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(settleMillis));
+        LocalDateTime since = inventorySnapshotRepository.findLatestAsOf().orElse(LEDGER_START);
+        if (!cutoff.isAfter(since)) {
+            return;
+        }
+
+        List<Long> itemIds = inventoryMovementRepository.findItemIdsWithMovementsBetween(since, cutoff);
+        for (Long itemId : itemIds) {
+            long balance = inventorySnapshotRepository
+                .findFirstByItemIdAndAsOfLessThanEqualOrderByAsOfDesc(itemId, cutoff)
+                .map(s -> s.getBalance() + inventoryMovementRepository.sumQuantityBetween(itemId, s.getAsOf(), cutoff))
+                .orElseGet(() -> inventoryMovementRepository.sumQuantityUpTo(itemId, cutoff));
+            inventorySnapshotRepository.save(new InventorySnapshot(null, itemId, cutoff, balance));
+        }
+
+        if (!itemIds.isEmpty()) {
+            logger.info("Compacted inventory ledger for {} items up to {}", itemIds.size(), cutoff);
+        }
+    }
+
+    private void requireItem(Long itemId) {
+        if (!inventoryItemRepository.existsById(itemId)) {
+            throw new RuntimeException("Item not found");
+        }
+    }
+
+    private InventoryMovementResponse mapToResponse(InventoryMovement movement) {
+        InventoryMovementResponse response = new InventoryMovementResponse();
+        response.setId(movement.getId());
+        response.setItemId(movement.getItemId());
+        response.setType(movement.getType());
+        response.setQuantity(movement.getQuantity());
+        response.setReference(movement.getReference());
+        response.setOccurredAt(movement.getOccurredAt());
+        return response;
+    }
+}
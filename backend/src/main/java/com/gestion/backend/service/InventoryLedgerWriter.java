@@ -0,0 +1,35 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.entity.InventoryMovement.MovementType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Inserta cada movimiento en la misma transacción que el ajuste de stock: el libro confirma o
+// revierte junto con inventory_items.quantity y nada queda pendiente en memoria. Es una
+// inserción de solo añadir, así que no alarga el bloqueo de la fila del item.
+@Component
+public class InventoryLedgerWriter {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO inventory_movements (item_id, movement_type, quantity, reference, occurred_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryLedgerWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Solo dentro de la transacción que cambia el stock
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long itemId, MovementType type, int quantity, String reference) {
+        if (quantity == 0) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_SQL, itemId, type.name(), quantity, reference, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,206 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.ReservationRequest;
+import com.gestion.backend.dto.ReservationResponse;
+import com.gestion.backend.entity.InventoryMovement.MovementType;
+import com.gestion.backend.entity.InventoryReservation;
+import com.gestion.backend.entity.InventoryReservation.ReservationStatus;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.repository.InventoryItemRepository;
+import com.gestion.backend.repository.InventoryReservationRepository;
+import com.gestion.backend.repository.TaskRepository;
+import com.gestion.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Reservas con caducidad sobre el inventario. El stock retenido se lleva en
+// inventory_items.reserved y cada transición (reservar, confirmar, cancelar, expirar)
+// es un UPDATE condicional, así que el disponible nunca queda negativo bajo concurrencia.
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class InventoryReservationService {
+
+    private final InventoryReservationRepository reservationRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final InventoryLedgerWriter inventoryLedgerWriter;
+    private final InventoryReservationSweeper reservationSweeper;
+    private final ShardRouter shardRouter;
+
+    @Value("${application.inventory.reservation.default-ttl-seconds:900}")
+    private long defaultTtlSeconds;
+
+    @Value("${application.inventory.reservation.max-ttl-seconds:86400}")
+    private long maxTtlSeconds;
+
+    public ReservationResponse reserve(Long itemId, ReservationRequest request, String username) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (request.getTaskId() != null && !ownsTask(request.getTaskId(), user)) {
+            throw new RuntimeException("Task not found");
+        }
+
+        long ttl = request.getTtlSeconds() != null ? request.getTtlSeconds() : defaultTtlSeconds;
+        if (ttl > maxTtlSeconds) {
+            throw new IllegalArgumentException("TTL exceeds the maximum of " + maxTtlSeconds + " seconds");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = inventoryItemRepository.reserve(itemId, request.getQuantity(), now);
+        if (updated == 0) {
+            if (!inventoryItemRepository.existsById(itemId)) {
+                throw new RuntimeException("Item not found");
+            }
+            throw new IllegalStateException("Insufficient available stock");
+        }
+
+        InventoryReservation reservation = new InventoryReservation();
+        reservation.setItemId(itemId);
+        reservation.setTaskId(request.getTaskId());
+        reservation.setUserId(user.getId());
+        reservation.setQuantity(request.getQuantity());
+        reservation.setStatus(ReservationStatus.ACTIVE);
+        reservation.setCreatedAt(now);
+        reservation.setExpiresAt(now.plusSeconds(ttl));
+
+        InventoryReservation saved = reservationRepository.save(reservation);
+        // Solo se programa la expiración si la reserva llega a confirmarse en la base de datos
+        TransactionCallbacks.afterCommit(() -> reservationSweeper.schedule(saved.getId(), saved.getExpiresAt()));
+        return mapToResponse(saved);
+    }
+
+    public ReservationResponse confirm(Long reservationId, String username) {
+        InventoryReservation reservation = findOwnedReservation(reservationId, username);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (reservation.getStatus() != ReservationStatus.ACTIVE) {
+            throw new IllegalStateException("Reservation is no longer active");
+        }
+        // Una reserva vencida que el barrido aún no procesó no puede confirmarse;
+        // la liberación queda a cargo del barrido para no depender de esta transacción
+        if (!reservation.getExpiresAt().isAfter(now)) {
+            throw new IllegalStateException("Reservation has expired");
+        }
+
+        if (reservationRepository.transition(reservationId, ReservationStatus.ACTIVE, ReservationStatus.CONFIRMED, now) == 0) {
+            throw new IllegalStateException("Reservation is no longer active");
+        }
+        if (inventoryItemRepository.consumeReserved(reservation.getItemId(), reservation.getQuantity(), now) == 0) {
+            // Solo ocurre si el item se borró; la transacción se revierte completa
+            throw new IllegalStateException("Reserved stock is no longer available");
+        }
+        String reference = reservation.getTaskId() != null
+            ? "Reserva " + reservationId + " (tarea " + reservation.getTaskId() + ")"
+            : "Reserva " + reservationId;
+        inventoryLedgerWriter.record(reservation.getItemId(), MovementType.CONSUMPTION, -reservation.getQuantity(), reference);
+
+        return mapToResponse(findReservation(reservationId));
+    }
+
+    public ReservationResponse cancel(Long reservationId, String username) {
+        InventoryReservation reservation = findOwnedReservation(reservationId, username);
+        if (!release(reservation, ReservationStatus.CANCELLED, LocalDateTime.now())) {
+            throw new IllegalStateException("Reservation is no longer active");
+        }
+        return mapToResponse(findReservation(reservationId));
+    }
+
+    // Llamado por el barrido; idempotente si la reserva ya se resolvió
+    public boolean expire(Long reservationId) {
+        return reservationRepository.findById(reservationId)
+            .filter(r -> r.getStatus() == ReservationStatus.ACTIVE)
+            .filter(r -> !r.getExpiresAt().isAfter(LocalDateTime.now()))
+            .map(r -> release(r, ReservationStatus.EXPIRED, LocalDateTime.now()))
+            .orElse(false);
+    }
+
+    // Las del propio usuario; ADMIN ve las de todos
+    @Transactional(readOnly = true)
+    public List<ReservationResponse> getActiveReservations(Long itemId, String username) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!inventoryItemRepository.existsById(itemId)) {
+            throw new RuntimeException("Item not found");
+        }
+        List<InventoryReservation> reservations = user.getRole() == User.Role.ADMIN
+            ? reservationRepository.findByItemIdAndStatusOrderByExpiresAtAsc(itemId, ReservationStatus.ACTIVE)
+            : reservationRepository.findByItemIdAndUserIdAndStatusOrderByExpiresAtAsc(itemId, user.getId(), ReservationStatus.ACTIVE);
+        return reservations.stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReservationResponse> getTaskReservations(Long taskId, String username) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!ownsTask(taskId, user)) {
+            throw new RuntimeException("Task not found");
+        }
+        return reservationRepository.findByTaskIdOrderByCreatedAtDesc(taskId).stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
+    }
+
+    // Sin comprobar la propiedad: quien llama ya obtuvo las tareas del propio usuario
+    @Transactional(readOnly = true)
+    public Map<Long, List<ReservationResponse>> getReservationsByTask(Collection<Long> taskIds) {
+        return reservationRepository.findByTaskIdInOrderByCreatedAtDesc(taskIds).stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.groupingBy(ReservationResponse::getTaskId));
+    }
+
+    private boolean release(InventoryReservation reservation, ReservationStatus target, LocalDateTime now) {
+        if (reservationRepository.transition(reservation.getId(), ReservationStatus.ACTIVE, target, now) == 0) {
+            return false;
+        }
+        inventoryItemRepository.releaseReserved(reservation.getItemId(), reservation.getQuantity(), now);
+        return true;
+    }
+
+    // Las tareas viven en el shard del usuario; el inventario, en la base global
+    private boolean ownsTask(Long taskId, User user) {
+        return shardRouter.callForUser(user.getId(),
+            () -> taskRepository.findByIdAndUserId(taskId, user.getId()).isPresent());
+    }
+
+    private InventoryReservation findOwnedReservation(Long reservationId, String username) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        InventoryReservation reservation = findReservation(reservationId);
+        if (!reservation.getUserId().equals(user.getId()) && user.getRole() != User.Role.ADMIN) {
+            throw new RuntimeException("Reservation not found");
+        }
+        return reservation;
+    }
+
+    private InventoryReservation findReservation(Long reservationId) {
+        return reservationRepository.findById(reservationId)
+            .orElseThrow(() -> new RuntimeException("Reservation not found"));
+    }
+
+    private ReservationResponse mapToResponse(InventoryReservation reservation) {
+        ReservationResponse response = new ReservationResponse();
+        response.setId(reservation.getId());
+        response.setItemId(reservation.getItemId());
+        response.setTaskId(reservation.getTaskId());
+        response.setUserId(reservation.getUserId());
+        response.setQuantity(reservation.getQuantity());
+        response.setStatus(reservation.getStatus());
+        response.setExpiresAt(reservation.getExpiresAt());
+        response.setCreatedAt(reservation.getCreatedAt());
+        response.setResolvedAt(reservation.getResolvedAt());
+        return response;
+    }
+}
@@ -0,0 +1,125 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.entity.InventoryReservation;
+import com.gestion.backend.entity.InventoryReservation.ReservationStatus;
+import com.gestion.backend.repository.InventoryReservationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Libera las reservas vencidas en cuanto caducan. Cada reserva creada en este nodo entra
+// en una cola de prioridad por fecha de expiración (DelayQueue) y un hilo dedicado
+// duerme hasta la siguiente; no hay barridos periódicos de la tabla.
+@Component
+public class InventoryReservationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReservationSweeper.class);
+
+    private final InventoryReservationRepository reservationRepository;
+    private final ObjectProvider<InventoryReservationService> reservationService;
+    private final DelayQueue<Expiry> queue = new DelayQueue<>();
+
+    @Value("${application.inventory.reservation.retry-delay-ms:5000}")
+    private long retryDelayMillis;
+
+    @Value("${application.inventory.reservation.orphan-grace-ms:300000}")
+    private long orphanGraceMillis;
+
+    private volatile Thread worker;
+
+    public InventoryReservationSweeper(InventoryReservationRepository reservationRepository,
+                                       ObjectProvider<InventoryReservationService> reservationService) {
+        this.reservationRepository = reservationRepository;
+        this.reservationService = reservationService;
+    }
+
+    public void schedule(Long reservationId, LocalDateTime expiresAt) {
+        queue.add(new Expiry(reservationId, toEpochMillis(expiresAt)));
+    }
+
+    public int getScheduledCount() {
+        return queue.size();
+    }
+
+    // Al arrancar se recargan las reservas activas una sola vez con el índice (status, expires_at)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<InventoryReservation> active = reservationRepository.findByStatus(ReservationStatus.ACTIVE);
+        for (InventoryReservation reservation : active) {
+            schedule(reservation.getId(), reservation.getExpiresAt());
+        }
+        worker = Thread.ofPlatform().name("reservation-sweeper").daemon(true).start(this::run);
+        logger.info("Reservation sweeper started with {} active reservations", active.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    // Red de seguridad para reservas cuyo nodo de origen cayó antes de expirarlas:
+    // consulta por rango sobre el índice, solo las vencidas hace más del margen de gracia
+    @Scheduled(fixedDelayString = "${application.inventory.reservation.orphan-check-ms:600000}",
+               initialDelayString = "${application.inventory.reservation.orphan-check-ms:600000}")
+    public void adoptOrphans() {
+        LocalDateTime threshold = LocalDateTime.now().minus(Duration.ofMillis(orphanGraceMillis));
+        List<InventoryReservation> orphans = reservationRepository.findByStatusAndExpiresAtBefore(
+            ReservationStatus.ACTIVE, threshold, PageRequest.of(0, 500));
+        for (InventoryReservation reservation : orphans) {
+            schedule(reservation.getId(), reservation.getExpiresAt());
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Expiry next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                reservationService.getObject().expire(next.reservationId());
+            } catch (RuntimeException e) {
+                logger.warn("Failed to expire reservation {}, retrying in {} ms", next.reservationId(), retryDelayMillis, e);
+                queue.add(new Expiry(next.reservationId(), System.currentTimeMillis() + retryDelayMillis));
+            }
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Expiry(Long reservationId, long expiresAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Expiry) other).expiresAtMillis);
+        }
+    }
+}
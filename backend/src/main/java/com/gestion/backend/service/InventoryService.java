@@ -0,0 +1,192 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.InventoryItemRequest;
+import com.gestion.backend.dto.InventoryItemResponse;
+import com.gestion.backend.dto.InventoryItemUpdateRequest;
+import com.gestion.backend.dto.InventorySearchResponse;
+import com.gestion.backend.entity.InventoryItem;
+import com.gestion.backend.entity.InventoryMovement.MovementType;
+import com.gestion.backend.repository.InventoryItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class InventoryService {
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryLedgerWriter inventoryLedgerWriter;
+    private final InventoryFacetCache inventoryFacetCache;
+
+    @Transactional(readOnly = true)
+    public List<InventoryItemResponse> getAllItems() {
+        return inventoryItemRepository.findAllByOrderByNameAsc().stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public InventoryItemResponse getItemById(Long itemId) {
+        return mapToResponse(findItem(itemId));
+    }
+
+    // Varios items en una sola consulta (carga por lotes de GraphQL)
+    @Transactional(readOnly = true)
+    public Map<Long, InventoryItemResponse> getItemsById(Collection<Long> itemIds) {
+        return inventoryItemRepository.findAllById(itemIds).stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.toMap(InventoryItemResponse::getId, Function.identity()));
+    }
+
+    // Búsqueda por categoría, rango de precio y stock bajo; las facetas salen de memoria
+    @Transactional(readOnly = true)
+    public InventorySearchResponse searchItems(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                               boolean lowStock, Long afterId, int size) {
+        List<InventoryItem> page = inventoryItemRepository.search(
+            category, minPrice, maxPrice, lowStock, afterId != null ? afterId : 0L, PageRequest.of(0, size + 1));
+
+        boolean hasMore = page.size() > size;
+        List<InventoryItem> items = hasMore ? page.subList(0, size) : page;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+
+        return new InventorySearchResponse(
+            items.stream().map(this::mapToResponse).collect(Collectors.toList()),
+            nextCursor,
+            inventoryFacetCache.getFacets()
+        );
+    }
+
+    public InventoryItemResponse createItem(InventoryItemRequest request) {
+        if (inventoryItemRepository.existsBySku(request.getSku())) {
+            throw new IllegalArgumentException("SKU already exists");
+        }
+
+        InventoryItem item = new InventoryItem();
+        item.setSku(request.getSku());
+        item.setName(request.getName());
+        item.setDescription(request.getDescription());
+        item.setCategory(request.getCategory());
+        item.setQuantity(request.getQuantity() != null ? request.getQuantity() : 0);
+        item.setPrice(request.getPrice() != null ? request.getPrice() : BigDecimal.ZERO);
+        item.setMinStock(request.getMinStock() != null ? request.getMinStock() : 0);
+
+        InventoryItem savedItem = inventoryItemRepository.save(item);
+        inventoryFacetCache.onCreated(savedItem.getCategory());
+        inventoryLedgerWriter.record(savedItem.getId(), MovementType.RECEIPT, savedItem.getQuantity(), "Stock inicial");
+        return mapToResponse(savedItem);
+    }
+
+    public InventoryItemResponse updateItem(Long itemId, InventoryItemUpdateRequest request) {
+        InventoryItem item = findItem(itemId);
+        int currentQuantity = item.getQuantity();
+        String previousCategory = item.getCategory();
+
+        if (request.getSku() != null && !request.getSku().trim().isEmpty() && !request.getSku().equals(item.getSku())) {
+            if (inventoryItemRepository.existsBySkuAndIdNot(request.getSku(), itemId)) {
+                throw new IllegalArgumentException("SKU already exists");
+            }
+            item.setSku(request.getSku());
+        }
+        if (request.getName() != null && !request.getName().trim().isEmpty()) {
+            item.setName(request.getName());
+        }
+        if (request.getDescription() != null) {
+            item.setDescription(request.getDescription());
+        }
+        if (request.getCategory() != null) {
+            item.setCategory(request.getCategory());
+        }
+        if (request.getPrice() != null) {
+            item.setPrice(request.getPrice());
+        }
+        if (request.getMinStock() != null) {
+            item.setMinStock(request.getMinStock());
+        }
+        inventoryItemRepository.saveAndFlush(item);
+        inventoryFacetCache.onCategoryChanged(previousCategory, item.getCategory());
+
+        // La cantidad nunca se copia desde la entidad leída: se fija con un UPDATE condicional
+        if (request.getQuantity() != null) {
+            setQuantity(itemId, currentQuantity, request.getQuantity());
+        }
+
+        return mapToResponse(findItem(itemId));
+    }
+
+    public void deleteItem(Long itemId) {
+        InventoryItem item = findItem(itemId);
+        inventoryItemRepository.delete(item);
+        inventoryFacetCache.onDeleted(item.getCategory());
+    }
+
+    // Suma (o resta) stock de forma atómica con un UPDATE condicional, sin leer-modificar-escribir
+    public InventoryItemResponse adjustStock(Long itemId, int delta, MovementType type, String reference) {
+        MovementType movementType = type != null ? type : MovementType.ADJUSTMENT;
+        if (movementType == MovementType.RECEIPT && delta <= 0) {
+            throw new IllegalArgumentException("Receipts must increase stock");
+        }
+        if (movementType == MovementType.SALE && delta >= 0) {
+            throw new IllegalArgumentException("Sales must decrease stock");
+        }
+
+        int updated = inventoryItemRepository.adjustQuantity(itemId, delta, LocalDateTime.now());
+        if (updated == 0) {
+            if (!inventoryItemRepository.existsById(itemId)) {
+                throw new RuntimeException("Item not found");
+            }
+            throw new IllegalStateException("Insufficient available stock");
+        }
+        inventoryLedgerWriter.record(itemId, movementType, delta, reference);
+        return mapToResponse(findItem(itemId));
+    }
+
+    public InventoryItemResponse adjustStock(Long itemId, int delta) {
+        return adjustStock(itemId, delta, MovementType.ADJUSTMENT, null);
+    }
+
+    // Compare-and-set sobre la cantidad leída, para registrar el delta exacto en el libro.
+    // Si otro ajuste se confirmó entretanto, el recuento se rechaza y el cliente reintenta.
+    private void setQuantity(Long itemId, int expected, int quantity) {
+        if (expected == quantity) {
+            return;
+        }
+        if (inventoryItemRepository.setQuantityIfCurrent(itemId, expected, quantity, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Stock was modified concurrently or is below reserved units");
+        }
+        inventoryLedgerWriter.record(itemId, MovementType.ADJUSTMENT, quantity - expected, "Recuento de inventario");
+    }
+
+    private InventoryItem findItem(Long itemId) {
+        return inventoryItemRepository.findById(itemId)
+            .orElseThrow(() -> new RuntimeException("Item not found"));
+    }
+
+    private InventoryItemResponse mapToResponse(InventoryItem item) {
+        InventoryItemResponse response = new InventoryItemResponse();
+        response.setId(item.getId());
+        response.setSku(item.getSku());
+        response.setName(item.getName());
+        response.setDescription(item.getDescription());
+        response.setCategory(item.getCategory());
+        response.setQuantity(item.getQuantity());
+        response.setReserved(item.getReserved());
+        response.setAvailableToPromise(item.getQuantity() - item.getReserved());
+        response.setMinStock(item.getMinStock());
+        response.setLowStock(item.getQuantity() - item.getReserved() <= item.getMinStock());
+        response.setPrice(item.getPrice());
+        response.setCreatedAt(item.getCreatedAt());
+        response.setUpdatedAt(item.getUpdatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,225 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.config.ShardDataSources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+// Transporte por defecto: una tabla bandeja de salida que cada nodo consulta por id
+// creciente. Las escrituras insertan su fila dentro de su propia transacción, así que la
+// invalidación existe si y solo si el cambio confirmó; con sharding cada shard tiene su
+// tabla y se sondean todas. Un id que falta puede ser un INSERT aún sin confirmar, así que
+// los huecos se vuelven a buscar durante gap-timeout-ms (debe superar lo que tarda una
+// transacción en confirmar desde que publica) antes de darlos por perdidos (rollback o
+// auto_increment_increment > 1). Si un nodo pasa demasiado tiempo sin poder leer una
+// tabla, al recuperarse invalida todas sus cachés en vez de confiar en lo que leyó.
+@Component
+@ConditionalOnProperty(name = "application.cache.invalidation.transport", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO cache_invalidations (region, cache_key, origin_node, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String POLL_SQL =
+        "SELECT id, region, cache_key, origin_node FROM cache_invalidations WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final int MAX_TRACKED_GAPS = 1000;
+
+    // Sobre el DataSource de la aplicación: se une a la transacción en curso y a su shard
+    private final JdbcTemplate transactionalJdbc;
+    // Fuera de transacción los mensajes van a la tabla de la base global
+    private final JdbcTemplate globalJdbc;
+    private final TransactionTemplate sendTransaction;
+    private final List<Outbox> outboxes = new ArrayList<>();
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final long maxStalenessMillis;
+    private volatile Consumer<List<InvalidationMessage>> receiver;
+
+    @Value("${application.cache.invalidation.retention-ms:3600000}")
+    private long retentionMillis;
+
+    public JdbcInvalidationTransport(ObjectProvider<ShardDataSources> shardDataSources,
+                                     DataSource dataSource,
+                                     @Value("${application.cache.invalidation.batch-size:500}") int batchSize,
+                                     @Value("${application.cache.invalidation.gap-timeout-ms:10000}") long gapTimeoutMillis,
+                                     @Value("${application.cache.invalidation.max-staleness-ms:30000}") long maxStalenessMillis) {
+        this(dataSource, shardDataSources.getIfAvailable() != null ? shardDataSources.getIfAvailable().getGlobal() : dataSource,
+            shardDataSources.getIfAvailable() != null ? shardDataSources.getIfAvailable().getAll() : Map.of("default", dataSource),
+            batchSize, gapTimeoutMillis, maxStalenessMillis);
+    }
+
+    JdbcInvalidationTransport(DataSource dataSource, int batchSize, long gapTimeoutMillis, long maxStalenessMillis) {
+        this(dataSource, dataSource, Map.of("default", dataSource), batchSize, gapTimeoutMillis, maxStalenessMillis);
+    }
+
+    private JdbcInvalidationTransport(DataSource dataSource, DataSource global, Map<String, DataSource> shards,
+                                      int batchSize, long gapTimeoutMillis, long maxStalenessMillis) {
+        this.transactionalJdbc = new JdbcTemplate(dataSource);
+        this.globalJdbc = new JdbcTemplate(global);
+        // send se llama desde afterCommit, donde la conexión de la transacción que acaba de
+        // confirmar sigue ligada al hilo: sin una transacción nueva el INSERT no se confirmaría
+        this.sendTransaction = new TransactionTemplate(new DataSourceTransactionManager(global));
+        this.sendTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        shards.forEach((name, shard) -> outboxes.add(new Outbox(name, new JdbcTemplate(shard))));
+        this.batchSize = batchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    // Dentro de la transacción que escribe: misma conexión, mismo shard
+    @Override
+    public void sendInTransaction(List<InvalidationMessage> messages) {
+        transactionalJdbc.batchUpdate(INSERT_SQL, rows(messages));
+    }
+
+    @Override
+    public void send(List<InvalidationMessage> messages) {
+        List<Object[]> rows = rows(messages);
+        sendTransaction.executeWithoutResult(status -> globalJdbc.batchUpdate(INSERT_SQL, rows));
+    }
+
+    // Lo anterior al arranque ya está reflejado en las cachés vacías de este nodo
+    @Override
+    public synchronized void start(Consumer<List<InvalidationMessage>> receiver) {
+        long now = System.currentTimeMillis();
+        for (Outbox outbox : outboxes) {
+            Long max = outbox.jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations", Long.class);
+            outbox.lastId = max != null ? max : 0;
+            outbox.lastSuccess = now;
+        }
+        this.receiver = receiver;
+    }
+
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.poll-ms:1000}")
+    public synchronized void poll() {
+        Consumer<List<InvalidationMessage>> target = receiver;
+        if (target == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<InvalidationMessage> received = new ArrayList<>();
+        boolean recovered = false;
+        for (Outbox outbox : outboxes) {
+            recovered |= poll(outbox, now, received);
+        }
+        if (recovered) {
+            received.add(0, InvalidationMessage.resetAll(null));
+        }
+        if (!received.isEmpty()) {
+            target.accept(received);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.prune-interval-ms:600000}",
+               initialDelayString = "${application.cache.invalidation.prune-interval-ms:600000}")
+    public void prune() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusNanos(retentionMillis * 1_000_000L));
+        for (Outbox outbox : outboxes) {
+            try {
+                int deleted = outbox.jdbc.update("DELETE FROM cache_invalidations WHERE created_at < ?", cutoff);
+                if (deleted > 0) {
+                    logger.debug("Pruned {} cache invalidation rows on {}", deleted, outbox.name);
+                }
+            } catch (DataAccessException e) {
+                logger.warn("Failed to prune cache invalidations on {}", outbox.name, e);
+            }
+        }
+    }
+
+    // Devuelve true si la tabla vuelve a leerse tras estar inaccesible demasiado tiempo
+    private boolean poll(Outbox outbox, long now, List<InvalidationMessage> received) {
+        List<InvalidationMessage> batch = new ArrayList<>();
+        try {
+            // Mientras haya huecos se relee desde el más antiguo; lo ya visto se descarta abajo
+            long floor = outbox.gaps.isEmpty() ? outbox.lastId : Math.min(outbox.lastId, outbox.gaps.firstKey() - 1);
+            List<Object[]> rows;
+            do {
+                rows = outbox.jdbc.query(POLL_SQL, (rs, i) -> new Object[] {
+                    rs.getLong("id"), rs.getString("region"), rs.getString("cache_key"), rs.getString("origin_node")
+                }, floor, batchSize);
+                for (Object[] row : rows) {
+                    long id = (Long) row[0];
+                    floor = id;
+                    if (id <= outbox.lastId && outbox.gaps.remove(id) == null) {
+                        continue;
+                    }
+                    for (long missing = outbox.lastId + 1; missing < id && outbox.gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                        outbox.gaps.put(missing, now);
+                    }
+                    outbox.lastId = Math.max(outbox.lastId, id);
+                    batch.add(new InvalidationMessage((String) row[1], (String) row[2], (String) row[3]));
+                }
+            } while (rows.size() == batchSize);
+        } catch (DataAccessException e) {
+            if (!outbox.stale && now - outbox.lastSuccess > maxStalenessMillis) {
+                outbox.stale = true;
+                logger.warn("Cache invalidation table on {} unreachable for {} ms, local caches will be reset",
+                    outbox.name, now - outbox.lastSuccess, e);
+            }
+            received.addAll(batch);
+            return false;
+        }
+
+        outbox.gaps.values().removeIf(detected -> now - detected > gapTimeoutMillis);
+        outbox.lastSuccess = now;
+        received.addAll(batch);
+        if (outbox.stale) {
+            outbox.stale = false;
+            return true;
+        }
+        return false;
+    }
+
+    private static List<Object[]> rows(List<InvalidationMessage> messages) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (InvalidationMessage message : messages) {
+            rows.add(new Object[] {message.region(), message.key(), message.originNode(), now});
+        }
+        return rows;
+    }
+
+    // Estado de lectura de la tabla de un shard; solo se toca bajo el monitor del transporte
+    private static final class Outbox {
+
+        private final String name;
+        private final JdbcTemplate jdbc;
+        // Huecos pendientes: id -> momento en que se detectó
+        private final NavigableMap<Long, Long> gaps = new TreeMap<>();
+        private long lastId;
+        private long lastSuccess;
+        private boolean stale;
+
+        private Outbox(String name, JdbcTemplate jdbc) {
+            this.name = name;
+            this.jdbc = jdbc;
+        }
+    }
+}
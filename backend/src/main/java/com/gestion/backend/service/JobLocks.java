@@ -0,0 +1,34 @@
+package com.gestion.backend.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Exclusión entre nodos para tareas programadas: bloquea la fila del nombre en job_locks
+// con FOR UPDATE SKIP LOCKED dentro de la transacción del llamante. El candado dura hasta el
+// commit o el rollback, así que una caída lo libera sola; si otro nodo lo tiene, se salta.
+@Component
+public class JobLocks {
+
+    private static final String LOCK_SQL = "SELECT name FROM job_locks WHERE name = ? FOR UPDATE SKIP LOCKED";
+    private static final String CREATE_SQL = "INSERT IGNORE INTO job_locks (name) VALUES (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobLocks(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // true si esta transacción tiene ahora el candado
+    public boolean tryLock(String name) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Job locks must be taken inside a transaction");
+        }
+        if (!jdbcTemplate.queryForList(LOCK_SQL, String.class, name).isEmpty()) {
+            return true;
+        }
+        // La primera vez la fila no existe; si otro nodo la crea a la vez, el INSERT espera a su commit
+        jdbcTemplate.update(CREATE_SQL, name);
+        return !jdbcTemplate.queryForList(LOCK_SQL, String.class, name).isEmpty();
+    }
+}
@@ -13,11 +13,17 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
     
+    // Claims propios del refresh token: tipo y familia de rotación
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+    public static final String FAMILY_CLAIM = "fam";
+    
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
     
@@ -41,39 +47,53 @@ public class JwtService {
     }
     
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails, jwtExpiration, UUID.randomUUID().toString());
+    }
+    
+    // El jti lo decide quien emite, que lo guarda en refresh_tokens antes de entregarlo
+    public String generateRefreshToken(UserDetails userDetails, String tokenId, String familyId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        claims.put(FAMILY_CLAIM, familyId);
+        return buildToken(claims, userDetails, refreshExpiration, tokenId);
     }
     
-    public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+    public long getRefreshExpiration() {
+        return refreshExpiration;
     }
     
     private String buildToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails,
-            long expiration
+            long expiration,
+            String tokenId
     ) {
         return Jwts
                 .builder()
                 .claims(extraClaims)
                 .subject(userDetails.getUsername())
+                // jti: permite revocar este token concreto (logout)
+                .id(tokenId)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSignInKey())
                 .compact();
     }
     
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    // Verifica firma y expiración una sola vez; lanza JwtException si el token no vale
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Un refresh token nunca sirve como token de acceso
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return !isRefreshToken(claims)
+                && claims.getSubject() != null && claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration().after(new Date());
     }
     
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class));
     }
     
     private Claims extractAllClaims(String token) {
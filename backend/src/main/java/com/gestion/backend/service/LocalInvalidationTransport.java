@@ -0,0 +1,40 @@
+package com.gestion.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Transporte en memoria: entrega al instante a todos los contextos de la misma JVM.
+// Para un único nodo o para levantar varias instancias en un mismo proceso.
+@Component
+@ConditionalOnProperty(name = "application.cache.invalidation.transport", havingValue = "local")
+public class LocalInvalidationTransport implements InvalidationTransport {
+
+    private static final List<Consumer<List<InvalidationMessage>>> RECEIVERS = new CopyOnWriteArrayList<>();
+
+    private volatile Consumer<List<InvalidationMessage>> receiver;
+
+    @Override
+    public void send(List<InvalidationMessage> messages) {
+        for (Consumer<List<InvalidationMessage>> target : RECEIVERS) {
+            target.accept(messages);
+        }
+    }
+
+    @Override
+    public void start(Consumer<List<InvalidationMessage>> receiver) {
+        this.receiver = receiver;
+        RECEIVERS.add(receiver);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (receiver != null) {
+            RECEIVERS.remove(receiver);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.gestion.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token buckets por usuario o IP y grupo de rutas, sin bloqueos: cada cubo es un único
+// AtomicLong con el instante teórico de la próxima llegada (GCRA, equivalente a un token
+// bucket de capacidad N que se rellena a R tokens/s). Un cubo lleno no guarda nada que
+// no se pueda reconstruir, así que los inactivos se eliminan; si aun así se alcanza el
+// máximo, las claves nuevas comparten un conjunto fijo de cubos por hash.
+@Service
+public class RateLimiter {
+
+    public enum Group { AUTH, READ, WRITE }
+
+    private static final int STRIPES = 256;
+
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final Map<Group, Limit> limits = new EnumMap<>(Group.class);
+    private final Map<Group, ConcurrentHashMap<String, AtomicLong>> buckets = new EnumMap<>(Group.class);
+    private final Map<Group, AtomicLong[]> stripes = new EnumMap<>(Group.class);
+    private final AtomicLong lastForcedSweep = new AtomicLong(System.nanoTime());
+
+    public RateLimiter(@Value("${application.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${application.rate-limit.max-buckets:100000}") int maxBuckets,
+                       @Value("${application.rate-limit.auth.capacity:10}") int authCapacity,
+                       @Value("${application.rate-limit.auth.per-second:0.5}") double authPerSecond,
+                       @Value("${application.rate-limit.reads.capacity:100}") int readCapacity,
+                       @Value("${application.rate-limit.reads.per-second:20}") double readPerSecond,
+                       @Value("${application.rate-limit.writes.capacity:30}") int writeCapacity,
+                       @Value("${application.rate-limit.writes.per-second:5}") double writePerSecond) {
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        limits.put(Group.AUTH, new Limit(authCapacity, authPerSecond));
+        limits.put(Group.READ, new Limit(readCapacity, readPerSecond));
+        limits.put(Group.WRITE, new Limit(writeCapacity, writePerSecond));
+        for (Group group : Group.values()) {
+            buckets.put(group, new ConcurrentHashMap<>());
+            AtomicLong[] groupStripes = new AtomicLong[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                groupStripes[i] = new AtomicLong(Long.MIN_VALUE);
+            }
+            stripes.put(group, groupStripes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 0 si se admite; si no, los nanosegundos que faltan para que haya un token
+    public long tryAcquire(Group group, String key) {
+        Limit limit = limits.get(group);
+        long now = System.nanoTime();
+        AtomicLong bucket = bucketFor(group, key, now);
+        while (true) {
+            long stored = bucket.get();
+            long next = Math.max(stored, now) + limit.intervalNanos();
+            long excess = next - now - limit.burstNanos();
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(stored, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int getBucketCount() {
+        int count = 0;
+        for (ConcurrentHashMap<String, AtomicLong> groupBuckets : buckets.values()) {
+            count += groupBuckets.size();
+        }
+        return count;
+    }
+
+    // Un cubo eliminado justo mientras otro hilo lo usa regala como mucho una ráfaga: se acepta
+    @Scheduled(fixedDelayString = "${application.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> groupBuckets : buckets.values()) {
+            groupBuckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+    }
+
+    private AtomicLong bucketFor(Group group, String key, long now) {
+        ConcurrentHashMap<String, AtomicLong> groupBuckets = buckets.get(group);
+        AtomicLong bucket = groupBuckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (getBucketCount() >= maxBuckets) {
+            // Una barrida forzada como mucho por segundo: con claves nuevas sin parar no se barre en cada una
+            long lastSweep = lastForcedSweep.get();
+            if (now - lastSweep > 1_000_000_000L && lastForcedSweep.compareAndSet(lastSweep, now)) {
+                evictIdle();
+            }
+            if (getBucketCount() >= maxBuckets) {
+                return stripes.get(group)[(key.hashCode() & 0x7fffffff) % STRIPES];
+            }
+        }
+        return groupBuckets.computeIfAbsent(key, ignored -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    private record Limit(long intervalNanos, long burstNanos) {
+        Limit(int capacity, double perSecond) {
+            this((long) (1_000_000_000L / perSecond), (long) (1_000_000_000L / perSecond) * capacity);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.config.ReactiveShardContext;
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.dto.TaskStatsResponse;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.entity.TagSetConverter;
+import com.gestion.backend.entity.TaskRecord;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.repository.ReactiveTaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Lecturas de tareas sin bloquear hilos: mismas consultas y mismas respuestas que
+// TaskService, sobre R2DBC. El usuario llega ya autenticado por el filtro JWT, así
+// que no se vuelve a buscar en la base de datos. Listado con rango, próximas, vencidas y
+// su conteo incluyen, como en v1, las ocurrencias calculadas de las recurrentes
+// (TaskRecurrenceExpander).
+@Service
+@RequiredArgsConstructor
+public class ReactiveTaskService {
+
+    private final ReactiveTaskRepository taskRepository;
+    private final ShardRouter shardRouter;
+    private final TaskRecurrenceExpander recurrenceExpander;
+
+    // Como TaskService: con from o to se añaden las ocurrencias calculadas en ese rango
+    public Flux<TaskResponse> getAllUserTasks(User user, LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return inShard(user, taskRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).map(t -> mapToResponse(t, user)));
+        }
+        return inShard(user, workingSet(user).flatMapIterable(tasks -> {
+            List<TaskResponse> combined = new ArrayList<>(tasks);
+            combined.addAll(recurrenceExpander.expandForList(tasks, from, to));
+            combined.sort(Comparator.comparing(TaskResponse::getCreatedAt).reversed());
+            return combined;
+        }));
+    }
+
+    public Mono<TaskResponse> getTaskById(Long taskId, User user) {
+        return inShard(user, taskRepository.findByIdAndUserId(taskId, user.getId())
+            .map(t -> mapToResponse(t, user))
+            .switchIfEmpty(Mono.error(new RuntimeException("Task not found"))));
+    }
+
+    public Flux<TaskResponse> getUserTasksByStatus(User user, TaskStatus status) {
+        return inShard(user, taskRepository.findByUserIdAndStatusOrderByCreatedAtDesc(user.getId(), status)
+            .map(t -> mapToResponse(t, user)));
+    }
+
+    public Flux<TaskResponse> getUserTasksByPriority(User user, TaskPriority priority) {
+        return inShard(user, taskRepository.findByUserIdAndPriorityOrderByCreatedAtDesc(user.getId(), priority)
+            .map(t -> mapToResponse(t, user)));
+    }
+
+    public Flux<TaskResponse> searchTasks(User user, String searchTerm) {
+        return inShard(user, taskRepository.findByUserIdAndTitleOrDescriptionContaining(user.getId(), searchTerm)
+            .map(t -> mapToResponse(t, user)));
+    }
+
+    public Flux<TaskResponse> getUpcomingTasks(User user, int days) {
+        LocalDateTime startDate = LocalDateTime.now();
+        LocalDateTime endDate = startDate.plusDays(days);
+        return inShard(user, withOccurrences(
+            taskRepository.findUpcomingTasks(user.getId(), startDate, endDate).map(t -> mapToResponse(t, user)),
+            workingSet(user).map(tasks -> recurrenceExpander.expand(tasks, startDate, endDate))));
+    }
+
+    public Flux<TaskResponse> getOverdueTasks(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        return inShard(user, withOccurrences(
+            taskRepository.findOverdueTasks(user.getId(), now).map(t -> mapToResponse(t, user)),
+            workingSet(user).map(tasks -> recurrenceExpander.expandOverdue(tasks, now))));
+    }
+
+    // Los conteos se lanzan a la vez; cada uno usa su propia conexión del pool. Las vencidas
+    // incluyen las ocurrencias calculadas, igual que getOverdueTasks
+    public Mono<TaskStatsResponse> getUserTaskStats(User user) {
+        Long userId = user.getId();
+        LocalDateTime now = LocalDateTime.now();
+        Mono<TaskStatsResponse> stats = Mono.zip(values -> new TaskStatsResponse(
+                (Long) values[0] + (Long) values[1],
+                (Long) values[2],
+                (Long) values[3],
+                (Long) values[4] + (Long) values[5],
+                (Long) values[6] + (Long) values[7],
+                (Long) values[8] + (Long) values[9]),
+            taskRepository.countByUserId(userId),
+            taskRepository.countArchivedByUserId(userId),
+            taskRepository.countByUserIdAndStatus(userId, TaskStatus.PENDING),
+            taskRepository.countByUserIdAndStatus(userId, TaskStatus.IN_PROGRESS),
+            taskRepository.countByUserIdAndStatus(userId, TaskStatus.COMPLETED),
+            taskRepository.countArchivedByUserIdAndStatus(userId, TaskStatus.COMPLETED.name()),
+            taskRepository.countByUserIdAndStatus(userId, TaskStatus.CANCELLED),
+            taskRepository.countArchivedByUserIdAndStatus(userId, TaskStatus.CANCELLED.name()),
+            taskRepository.countOverdueTasks(userId, now),
+            workingSet(user).map(tasks -> (long) recurrenceExpander.expandOverdue(tasks, now).size()));
+        return inShard(user, stats);
+    }
+
+    // Series y filas de ocurrencias: todo lo no archivado del usuario
+    private Mono<List<TaskResponse>> workingSet(User user) {
+        return taskRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).map(t -> mapToResponse(t, user)).collectList();
+    }
+
+    // Filas y ocurrencias calculadas juntas por fecha límite, como TaskService
+    private static Flux<TaskResponse> withOccurrences(Flux<TaskResponse> tasks, Mono<List<TaskResponse>> occurrences) {
+        return Mono.zip(tasks.collectList(), occurrences, (rows, expanded) -> {
+            List<TaskResponse> combined = new ArrayList<>(rows.size() + expanded.size());
+            combined.addAll(rows);
+            combined.addAll(expanded);
+            combined.sort(Comparator.comparing(TaskResponse::getDueDate));
+            return combined;
+        }).flatMapIterable(combined -> combined);
+    }
+
+    private <T> Flux<T> inShard(User user, Flux<T> publisher) {
+        return shardRouter.isEnabled()
+            ? publisher.contextWrite(ReactiveShardContext.with(shardRouter.shardOf(user.getId())))
+            : publisher;
+    }
+
+    private <T> Mono<T> inShard(User user, Mono<T> publisher) {
+        return shardRouter.isEnabled()
+            ? publisher.contextWrite(ReactiveShardContext.with(shardRouter.shardOf(user.getId())))
+            : publisher;
+    }
+
+    private TaskResponse mapToResponse(TaskRecord task, User user) {
+        TaskResponse response = new TaskResponse();
+        response.setId(task.getId());
+        response.setTitle(task.getTitle());
+        response.setDescription(task.getDescription());
+        response.setStatus(task.getStatus());
+        response.setPriority(task.getPriority());
+        response.setDueDate(task.getDueDate());
+        response.setCreatedAt(task.getCreatedAt());
+        response.setUpdatedAt(task.getUpdatedAt());
+        response.setCompletedAt(task.getCompletedAt());
+        response.setRecurrence(task.getRecurrence());
+        response.setRecurrenceInterval(task.getRecurrenceInterval());
+        response.setRecurrenceUntil(task.getRecurrenceUntil());
+        response.setSeriesId(task.getSeriesId());
+        response.setOccurrenceDate(task.getOccurrenceDate());
+        response.setTags(TagSetConverter.parse(task.getTags()));
+        response.setUserId(user.getId());
+        response.setUsername(user.getUsername());
+        response.setVersion(task.getVersion());
+        return response;
+    }
+}
@@ -0,0 +1,134 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.entity.RefreshToken;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.repository.RefreshTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+// Refresh tokens rotativos: renovar el token de acceso no pasa por BCrypt. Cada refresh
+// consume el token presentado y entrega otro de la misma familia; si llega uno ya consumido
+// alguien tiene una copia, y se revoca la familia entera (el cliente legítimo también tendrá
+// que volver a iniciar sesión).
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    // Dos pestañas que refrescan a la vez presentan el mismo token: dentro de este margen el
+    // segundo intento se rechaza sin tratarlo como robo
+    @Value("${application.security.jwt.refresh-token.reuse-grace-ms:2000}")
+    private long reuseGraceMillis;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtService jwtService,
+                               UserDetailsService userDetailsService,
+                               TokenRevocationService tokenRevocationService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    public record Rotation(User user, String accessToken, String refreshToken) {
+    }
+
+    // Login o registro: empieza una familia nueva
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    // La detección de reutilización tiene que confirmarse aunque la petición falle
+    @Transactional(noRollbackFor = IllegalStateException.class)
+    public Rotation rotate(String refreshToken) {
+        Claims claims = parseRefreshToken(refreshToken);
+        RefreshToken stored = refreshTokenRepository.findForUpdate(claims.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        if (stored.getRevokedAt() != null) {
+            throw new IllegalArgumentException("Refresh token revoked");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (stored.getUsedAt() != null) {
+            if (now.isBefore(stored.getUsedAt().plus(reuseGraceMillis, ChronoUnit.MILLIS))) {
+                throw new IllegalArgumentException("Refresh token already used");
+            }
+            refreshTokenRepository.revokeFamily(stored.getFamilyId(), now);
+            logger.warn("Refresh token reuse detected for user {}: family {} revoked",
+                stored.getUserId(), stored.getFamilyId());
+            throw new IllegalStateException("Refresh token reuse detected");
+        }
+
+        // Usuario desde la caché de CustomUserDetailsService: sin consulta ni hash
+        User user = (User) userDetailsService.loadUserByUsername(claims.getSubject());
+        if (!user.getId().equals(stored.getUserId()) || !user.isEnabled() || !user.isAccountNonLocked()
+                || tokenRevocationService.isRevoked(claims, refreshToken, user)) {
+            throw new IllegalArgumentException("Refresh token revoked");
+        }
+
+        stored.setUsedAt(now);
+        return new Rotation(user, jwtService.generateToken(user), issue(user, stored.getFamilyId()));
+    }
+
+    // Logout: la familia del refresh token presentado deja de servir. Uno inválido o
+    // caducado ya no sirve de nada, así que no hay nada que revocar
+    @Transactional
+    public void revokeFamily(String refreshToken, Long userId) {
+        Claims claims;
+        try {
+            claims = parseRefreshToken(refreshToken);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        refreshTokenRepository.findById(claims.getId())
+                .filter(stored -> stored.getUserId().equals(userId))
+                .ifPresent(stored -> refreshTokenRepository.revokeFamily(stored.getFamilyId(), LocalDateTime.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.jwt.refresh-token.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.debug("Pruned {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(User user, String familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(tokenId, familyId, user.getId(), now,
+            now.plus(jwtService.getRefreshExpiration(), ChronoUnit.MILLIS), null, null));
+        return jwtService.generateRefreshToken(user, tokenId, familyId);
+    }
+
+    private Claims parseRefreshToken(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtService.parseToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
+        if (!jwtService.isRefreshToken(claims) || claims.getId() == null) {
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
+        return claims;
+    }
+}
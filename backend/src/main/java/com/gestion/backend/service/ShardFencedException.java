@@ -0,0 +1,10 @@
+package com.gestion.backend.service;
+
+// Escritura rechazada porque los datos del usuario ya no viven (o están dejando de vivir) en
+// el shard al que se enrutó; el cliente debe reintentar en unos segundos
+public class ShardFencedException extends RuntimeException {
+
+    public ShardFencedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,53 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.event.TaskChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Congelación de un usuario en su shard de origen sin depender de que los demás nodos
+// refresquen a tiempo. Cada escritura de TaskService comprueba la valla dentro de su
+// transacción con una lectura bloqueante: si no hay fila, el bloqueo de hueco (REPEATABLE
+// READ, el nivel por defecto de InnoDB) hace esperar al INSERT de la valla hasta que la
+// escritura confirme; si la hay, la escritura se revierte. Así, cuando fence() vuelve, no
+// queda ninguna escritura en curso en el origen y no entra ninguna más.
+@Component
+public class ShardFences {
+
+    private static final String CHECK_SQL = "SELECT user_id FROM shard_fences WHERE user_id = ? FOR UPDATE";
+    private static final String FENCE_SQL =
+        "INSERT INTO shard_fences (user_id, fenced_at) VALUES (?, ?) ON DUPLICATE KEY UPDATE fenced_at = VALUES(fenced_at)";
+    private static final String UNFENCE_SQL = "DELETE FROM shard_fences WHERE user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    public ShardFences(JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    // Síncrono: corre dentro de la transacción de TaskService, en el shard al que se enrutó
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        if (!jdbcTemplate.queryForList(CHECK_SQL, Long.class, event.getUserId()).isEmpty()) {
+            throw new ShardFencedException("User data is being moved, retry shortly");
+        }
+    }
+
+    // Espera a que terminen las escrituras en curso del usuario en ese shard
+    void fence(DataSource shard, Long userId) {
+        new JdbcTemplate(shard).update(FENCE_SQL, userId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    void unfence(DataSource shard, Long userId) {
+        new JdbcTemplate(shard).update(UNFENCE_SQL, userId);
+    }
+}
@@ -0,0 +1,260 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.config.ShardDataSources;
+import com.gestion.backend.dto.ShardAssignmentResponse;
+import com.gestion.backend.dto.ShardMoveResponse;
+import com.gestion.backend.dto.ShardSummary;
+import com.gestion.backend.entity.UserShardAssignment.AssignmentStatus;
+import com.gestion.backend.repository.ArchivedTaskRepository;
+import com.gestion.backend.repository.TaskRepository;
+import com.gestion.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Mueve todas las tareas de un usuario a otro shard sin cortar su servicio más que unos
+// segundos. Primera pasada en línea (el usuario sigue escribiendo en el origen); después
+// se congela al usuario (MOVING para los nodos y una valla en el origen, ver ShardFences),
+// se copia lo que cambió entretanto, se publica el nuevo shard y se purga el origen. La
+// valla se queda en el origen: un nodo atrasado que aún escriba allí recibe un rechazo.
+@Service
+public class ShardMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardMigrationService.class);
+
+    private static final List<String> TASK_COLUMNS = List.of(
+        "id", "title", "description", "status", "priority", "due_date", "created_at", "updated_at",
+        "completed_at", "recurrence", "recurrence_interval", "recurrence_until", "series_id", "occurrence_date",
+        "tags", "version", "user_id");
+
+    private static final List<String> ARCHIVED_TASK_COLUMNS = List.of(
+        "id", "title", "description", "status", "priority", "due_date", "created_at", "updated_at",
+        "completed_at", "recurrence", "recurrence_interval", "recurrence_until", "series_id", "occurrence_date",
+        "tags", "version", "user_id", "archived_at");
+
+    // Sin id: cada shard numera sus filas y la clave natural es (user_id, stat_date)
+    private static final List<String> DAILY_STAT_COLUMNS = List.of(
+        "user_id", "stat_date", "open_count", "completed_count");
+
+    private final ShardRouter shardRouter;
+    private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final ShardFences shardFences;
+    private final Set<Long> moving = ConcurrentHashMap.newKeySet();
+
+    @Value("${application.sharding.move.batch-size:500}")
+    private int batchSize;
+
+    public ShardMigrationService(ShardRouter shardRouter,
+                                 UserRepository userRepository,
+                                 TaskRepository taskRepository,
+                                 ArchivedTaskRepository archivedTaskRepository,
+                                 ShardFences shardFences) {
+        this.shardRouter = shardRouter;
+        this.userRepository = userRepository;
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.shardFences = shardFences;
+    }
+
+    public List<ShardSummary> getSummaries() {
+        Map<String, Long> assigned = new HashMap<>();
+        if (shardRouter.isEnabled()) {
+            new JdbcTemplate(shardRouter.getShardDataSources().getGlobal()).query(
+                "SELECT shard, COUNT(*) AS users FROM user_shard_assignments GROUP BY shard",
+                rs -> {
+                    assigned.put(rs.getString("shard"), rs.getLong("users"));
+                });
+        }
+        String defaultShard = shardRouter.getDefaultShard();
+        long totalUsers = userRepository.count();
+        long assignedElsewhere = assigned.entrySet().stream()
+            .filter(e -> !e.getKey().equals(defaultShard))
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+
+        List<ShardSummary> summaries = new ArrayList<>();
+        for (String shard : shardRouter.getShardNames()) {
+            boolean isDefault = shard.equals(defaultShard);
+            long users = isDefault ? totalUsers - assignedElsewhere : assigned.getOrDefault(shard, 0L);
+            long[] counts = shardRouter.callInShard(shard,
+                () -> new long[] {taskRepository.count(), archivedTaskRepository.count()});
+            summaries.add(new ShardSummary(shard, isDefault, users, counts[0], counts[1]));
+        }
+        return summaries;
+    }
+
+    public ShardAssignmentResponse getAssignment(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        ShardRouter.Assignment assignment = shardRouter.assignmentOf(userId);
+        return new ShardAssignmentResponse(userId, assignment.shard(), assignment.moving());
+    }
+
+    public ShardMoveResponse moveUser(Long userId, String target) {
+        if (!shardRouter.isEnabled()) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        if (!shardRouter.getShardNames().contains(target)) {
+            throw new IllegalArgumentException("Unknown shard: " + target);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        String source = shardRouter.shardOf(userId);
+        if (source.equals(target)) {
+            throw new IllegalArgumentException("User is already on shard " + target);
+        }
+        if (!moving.add(userId)) {
+            throw new IllegalStateException("User is already being moved");
+        }
+        try {
+            return doMove(userId, source, target);
+        } finally {
+            moving.remove(userId);
+        }
+    }
+
+    private ShardMoveResponse doMove(Long userId, String source, String target) {
+        ShardDataSources dataSources = shardRouter.getShardDataSources();
+        DataSource sourceDataSource = dataSources.get(source);
+        DataSource targetDataSource = dataSources.get(target);
+        long start = System.currentTimeMillis();
+        boolean flipped = false;
+
+        try {
+            shardRouter.replicateUser(userId, target);
+
+            // Pasada 1: en línea, el usuario sigue escribiendo en el origen
+            LocalDateTime firstPassStart = LocalDateTime.now();
+            long tasks = copy(sourceDataSource, targetDataSource, "tasks", TASK_COLUMNS, "user_id = ?", userId);
+            long archived = copy(sourceDataSource, targetDataSource, "archived_tasks", ARCHIVED_TASK_COLUMNS, "user_id = ?", userId);
+            logger.info("Shard move of user {} {} -> {}: first pass copied {} tasks and {} archived tasks",
+                userId, source, target, tasks, archived);
+
+            // Congelación: los nodos rechazan escrituras en cuanto ven MOVING, y la valla del
+            // origen vuelve cuando ya no queda ninguna en curso y rechaza las que lleguen tarde
+            shardRouter.setAssignment(userId, source, AssignmentStatus.MOVING);
+            long frozenAt = System.currentTimeMillis();
+            shardFences.fence(sourceDataSource, userId);
+
+            // Pasada 2: solo lo modificado desde la primera, más borrados y archivados
+            LocalDateTime since = firstPassStart.minusSeconds(1);
+            tasks += inTransaction(targetDataSource, () -> {
+                long copied = copy(sourceDataSource, targetDataSource, "tasks", TASK_COLUMNS,
+                    "user_id = ? AND (updated_at IS NULL OR updated_at >= ?)", userId, Timestamp.valueOf(since));
+                deleteMissing(sourceDataSource, targetDataSource, userId);
+                return copied;
+            });
+            archived += copy(sourceDataSource, targetDataSource, "archived_tasks", ARCHIVED_TASK_COLUMNS,
+                "user_id = ? AND archived_at >= ?", userId, Timestamp.valueOf(since));
+            long stats = copy(sourceDataSource, targetDataSource, "task_daily_stats", DAILY_STAT_COLUMNS, "user_id = ?", userId);
+
+            // Una valla de un movimiento anterior desde el destino bloquearía al usuario allí
+            shardFences.unfence(targetDataSource, userId);
+            shardRouter.setAssignment(userId, target, AssignmentStatus.ACTIVE);
+            flipped = true;
+            long frozenMillis = System.currentTimeMillis() - frozenAt;
+
+            // Las escrituras ya no pueden llegar al origen; se espera solo para que ningún nodo
+            // lea de él tras la purga: en max-staleness-ms cada nodo ha visto el cambio o ha
+            // dejado de atender peticiones de tareas
+            awaitPropagation();
+            purge(sourceDataSource, userId, !source.equals(dataSources.getDefaultShard()));
+
+            long elapsed = System.currentTimeMillis() - start;
+            logger.info("Shard move of user {} {} -> {} finished in {} ms ({} ms frozen)",
+                userId, source, target, elapsed, frozenMillis);
+            return new ShardMoveResponse(userId, source, target, tasks, archived, stats, frozenMillis, elapsed);
+        } catch (RuntimeException e) {
+            if (flipped) {
+                // Los datos ya están completos en el destino; solo queda basura en el origen
+                logger.error("Shard move of user {} {} -> {} could not purge the source shard", userId, source, target, e);
+                throw new IllegalStateException("Move completed but source purge failed: " + e.getMessage(), e);
+            }
+            logger.error("Shard move of user {} {} -> {} failed, reverting", userId, source, target, e);
+            shardFences.unfence(sourceDataSource, userId);
+            shardRouter.setAssignment(userId, source, AssignmentStatus.ACTIVE);
+            purge(targetDataSource, userId, !target.equals(dataSources.getDefaultShard()));
+            throw new IllegalStateException("Move failed: " + e.getMessage(), e);
+        }
+    }
+
+    private long copy(DataSource source, DataSource target, String table, List<String> columns,
+                      String where, Object... args) {
+        String select = "SELECT " + String.join(", ", columns) + " FROM " + table + " WHERE " + where;
+        List<Object[]> rows = new JdbcTemplate(source).query(select, (rs, i) -> {
+            Object[] row = new Object[columns.size()];
+            for (int c = 0; c < row.length; c++) {
+                row[c] = rs.getObject(c + 1);
+            }
+            return row;
+        }, args);
+
+        String upsert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+            + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ") ON DUPLICATE KEY UPDATE "
+            + columns.stream().filter(c -> !c.equals("id")).map(c -> c + " = VALUES(" + c + ")").collect(Collectors.joining(", "));
+        JdbcTemplate targetJdbc = new JdbcTemplate(target);
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            targetJdbc.batchUpdate(upsert, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+        }
+        return rows.size();
+    }
+
+    // Tareas borradas o archivadas en el origen durante la primera pasada
+    private void deleteMissing(DataSource source, DataSource target, Long userId) {
+        String sql = "SELECT id FROM tasks WHERE user_id = ?";
+        Set<Long> present = new HashSet<>(new JdbcTemplate(source).queryForList(sql, Long.class, userId));
+        JdbcTemplate targetJdbc = new JdbcTemplate(target);
+        for (Long id : targetJdbc.queryForList(sql, Long.class, userId)) {
+            if (!present.contains(id)) {
+                targetJdbc.update("DELETE FROM tasks WHERE id = ?", id);
+            }
+        }
+    }
+
+    private void purge(DataSource dataSource, Long userId, boolean dropUserReplica) {
+        inTransaction(dataSource, () -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.update("DELETE FROM tasks WHERE user_id = ?", userId);
+            jdbc.update("DELETE FROM archived_tasks WHERE user_id = ?", userId);
+            jdbc.update("DELETE FROM task_daily_stats WHERE user_id = ?", userId);
+            if (dropUserReplica) {
+                jdbc.update("DELETE FROM users WHERE id = ?", userId);
+            }
+            return null;
+        });
+    }
+
+    private <T> T inTransaction(DataSource dataSource, Supplier<T> action) {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource)).execute(status -> action.get());
+    }
+
+    private void awaitPropagation() {
+        try {
+            Thread.sleep(shardRouter.getMaxStalenessMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard assignment propagation");
+        }
+    }
+}
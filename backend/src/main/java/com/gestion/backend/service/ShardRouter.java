@@ -0,0 +1,207 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.config.ShardContext;
+import com.gestion.backend.config.ShardDataSources;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.entity.UserShardAssignment.AssignmentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Resuelve el shard de cada usuario y ejecuta trabajo contra él. La asignación se guarda en
+// user_shard_assignments (base global) y se cachea en memoria; cada nodo relee los cambios
+// periódicamente. Un nodo que no consigue refrescar en max-staleness-ms se considera
+// desfasado y deja de atender peticiones de tareas (ShardRoutingFilter), así que un movimiento
+// se propaga o el nodo falla cerrado en como mucho ese tiempo.
+// Sin sharding activo hay un único shard y todo va a la base de datos de siempre.
+@Component
+public class ShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+    private static final String UPSERT_ASSIGNMENT_SQL =
+        "INSERT INTO user_shard_assignments (user_id, shard, status, updated_at) VALUES (?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE shard = VALUES(shard), status = VALUES(status), updated_at = VALUES(updated_at)";
+
+    // La réplica de un usuario en un shard no lleva el hash de la contraseña
+    private static final String UPSERT_USER_REPLICA_SQL =
+        "INSERT INTO users (id, username, email, password, role, created_at, updated_at, is_enabled, " +
+        "account_non_expired, account_non_locked, credentials_non_expired) VALUES (?, ?, ?, '!', ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE username = VALUES(username), email = VALUES(email), role = VALUES(role), " +
+        "updated_at = VALUES(updated_at), is_enabled = VALUES(is_enabled), account_non_expired = VALUES(account_non_expired), " +
+        "account_non_locked = VALUES(account_non_locked), credentials_non_expired = VALUES(credentials_non_expired)";
+
+    private final ShardDataSources shardDataSources;
+    private final JdbcTemplate globalJdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final String defaultShard;
+    private final ConsistentHashRing ring;
+    private final Map<Long, Assignment> assignments = new ConcurrentHashMap<>();
+
+    @Value("${application.sharding.assignment-refresh-ms:5000}")
+    private long refreshMillis;
+
+    @Value("${application.sharding.max-staleness-ms:15000}")
+    private long maxStalenessMillis;
+
+    private volatile LocalDateTime lastRefresh = LocalDateTime.now();
+
+    public ShardRouter(ObjectProvider<ShardDataSources> shardDataSources,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${application.sharding.default-shard:primary}") String defaultShard,
+                       @Value("${application.sharding.ring:}") String ringShards,
+                       @Value("${application.sharding.virtual-nodes:64}") int virtualNodes) {
+        this.shardDataSources = shardDataSources.getIfAvailable();
+        this.globalJdbcTemplate = this.shardDataSources != null ? new JdbcTemplate(this.shardDataSources.getGlobal()) : null;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultShard = defaultShard;
+
+        List<String> ringMembers = ringShards.isBlank()
+            ? getShardNames()
+            : Arrays.stream(ringShards.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        for (String shard : ringMembers) {
+            if (!getShardNames().contains(shard)) {
+                throw new IllegalStateException("Ring references unknown shard: " + shard);
+            }
+        }
+        this.ring = new ConsistentHashRing(ringMembers, virtualNodes);
+    }
+
+    public boolean isEnabled() {
+        return shardDataSources != null;
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    public List<String> getShardNames() {
+        return shardDataSources != null ? new ArrayList<>(shardDataSources.getAll().keySet()) : List.of(defaultShard);
+    }
+
+    public Assignment assignmentOf(Long userId) {
+        if (!isEnabled()) {
+            return new Assignment(defaultShard, false);
+        }
+        return assignments.computeIfAbsent(userId, this::loadAssignment);
+    }
+
+    public String shardOf(Long userId) {
+        return assignmentOf(userId).shard();
+    }
+
+    // Ejecuta la acción en una transacción nueva contra el shard indicado. Sirve también
+    // desde dentro de otra transacción: la exterior queda suspendida con su conexión.
+    public <T> T callInShard(String shard, Supplier<T> action) {
+        String previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return requiresNew.execute(status -> action.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public <T> T callForUser(Long userId, Supplier<T> action) {
+        return callInShard(shardOf(userId), action);
+    }
+
+    // Coloca a un usuario recién registrado según el anillo. Se replica su fila antes de
+    // publicar la asignación para que nunca se enrute a un shard donde aún no existe.
+    public String placeNewUser(User user) {
+        if (!isEnabled()) {
+            return defaultShard;
+        }
+        String shard = ring.shardFor(user.getId());
+        if (!shard.equals(defaultShard)) {
+            replicateUser(user.getId(), shard);
+            setAssignment(user.getId(), shard, AssignmentStatus.ACTIVE);
+        }
+        return shard;
+    }
+
+    void replicateUser(Long userId, String shard) {
+        if (shard.equals(defaultShard)) {
+            return;
+        }
+        Map<String, Object> row = globalJdbcTemplate.queryForMap(
+            "SELECT id, username, email, role, created_at, updated_at, is_enabled, account_non_expired, " +
+            "account_non_locked, credentials_non_expired FROM users WHERE id = ?", userId);
+        new JdbcTemplate(shardDataSources.get(shard)).update(UPSERT_USER_REPLICA_SQL,
+            row.get("id"), row.get("username"), row.get("email"), row.get("role"), row.get("created_at"),
+            row.get("updated_at"), row.get("is_enabled"), row.get("account_non_expired"),
+            row.get("account_non_locked"), row.get("credentials_non_expired"));
+    }
+
+    void setAssignment(Long userId, String shard, AssignmentStatus status) {
+        globalJdbcTemplate.update(UPSERT_ASSIGNMENT_SQL, userId, shard, status.name(), Timestamp.valueOf(LocalDateTime.now()));
+        assignments.put(userId, new Assignment(shard, status == AssignmentStatus.MOVING));
+    }
+
+    ShardDataSources getShardDataSources() {
+        return shardDataSources;
+    }
+
+    long getMaxStalenessMillis() {
+        return maxStalenessMillis;
+    }
+
+    // La caché de asignaciones puede ser más antigua que max-staleness-ms
+    public boolean isStale() {
+        return isEnabled() && lastRefresh.isBefore(LocalDateTime.now().minusNanos(maxStalenessMillis * 1_000_000L));
+    }
+
+    // Relee las asignaciones cambiadas por cualquier nodo; el solape cubre desfases de reloj
+    @Scheduled(fixedDelayString = "${application.sharding.assignment-refresh-ms:5000}")
+    public void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastRefresh.minusNanos(refreshMillis * 2_000_000L);
+        globalJdbcTemplate.query(
+            "SELECT user_id, shard, status FROM user_shard_assignments WHERE updated_at >= ?",
+            rs -> {
+                assignments.put(rs.getLong("user_id"),
+                    new Assignment(rs.getString("shard"), AssignmentStatus.MOVING.name().equals(rs.getString("status"))));
+            },
+            Timestamp.valueOf(since));
+        lastRefresh = now;
+    }
+
+    private Assignment loadAssignment(Long userId) {
+        List<Assignment> rows = globalJdbcTemplate.query(
+            "SELECT shard, status FROM user_shard_assignments WHERE user_id = ?",
+            (rs, i) -> new Assignment(rs.getString("shard"), AssignmentStatus.MOVING.name().equals(rs.getString("status"))),
+            userId);
+        if (rows.isEmpty()) {
+            return new Assignment(defaultShard, false);
+        }
+        Assignment assignment = rows.get(0);
+        if (!getShardNames().contains(assignment.shard())) {
+            logger.error("User {} is assigned to unknown shard {}", userId, assignment.shard());
+            throw new IllegalStateException("Unknown shard: " + assignment.shard());
+        }
+        return assignment;
+    }
+
+    public record Assignment(String shard, boolean moving) {
+    }
+}
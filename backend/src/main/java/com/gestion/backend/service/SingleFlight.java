@@ -0,0 +1,97 @@
+package com.gestion.backend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Agrupa llamadas idénticas simultáneas: la primera ejecuta y las que llegan mientras tanto
+// esperan su resultado (o su excepción). Nada se guarda al terminar, así que no añade
+// ninguna ventana de datos viejos. Una escritura confirmada sobre una partición (el usuario)
+// deja fuera a los vuelos que ya estaban en marcha: quien llega después lanza el suyo.
+// Las generaciones van en franjas por hash, así que la memoria no crece con los usuarios;
+// una colisión solo provoca alguna ejecución de más.
+class SingleFlight<K> {
+
+    private static final int STRIPES = 1024;
+
+    private final Function<K, Object> partitionOf;
+    private final ConcurrentHashMap<K, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final LongAdder coalesced = new LongAdder();
+
+    SingleFlight(Function<K, Object> partitionOf) {
+        this.partitionOf = partitionOf;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T execute(K key, Supplier<T> call) {
+        long generation = generations.get(stripe(partitionOf.apply(key)));
+        Flight mine = new Flight(generation);
+        while (true) {
+            Flight existing = flights.putIfAbsent(key, mine);
+            if (existing == null) {
+                break;
+            }
+            if (existing.generation >= generation) {
+                coalesced.increment();
+                return (T) existing.await();
+            }
+            // Empezó antes de una escritura que este llamante ya tiene que ver
+            if (flights.replace(key, existing, mine)) {
+                break;
+            }
+        }
+
+        try {
+            T result = call.get();
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, mine);
+        }
+    }
+
+    // Tras confirmar una escritura de la partición
+    void invalidate(Object partition) {
+        generations.incrementAndGet(stripe(partition));
+    }
+
+    long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private static int stripe(Object partition) {
+        return (partition.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    private static final class Flight {
+        private final long generation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+
+        // La excepción del líder llega tal cual, para que los controladores la traten igual
+        private Object await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
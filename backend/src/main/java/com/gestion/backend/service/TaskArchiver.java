@@ -0,0 +1,128 @@
+package com.gestion.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Mueve las tareas terminadas antiguas de tasks a archived_tasks para que la tabla
+// caliente (y sus índices) se mantenga pequeña. Trabaja en lotes cortos, cada uno en su
+// propia transacción, con una pausa entre lotes y un tope por ejecución. Las filas
+// bloqueadas por una escritura en curso se saltan (SKIP LOCKED) y se archivan en otra pasada.
+// Con sharding, cada shard se recorre por separado.
+@Component
+public class TaskArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskArchiver.class);
+
+    // Una ocurrencia terminada o cancelada de fecha futura sigue en tasks: es la fila que impide
+    // que TaskRecurrenceExpander la vuelva a calcular como pendiente
+    private static final String SELECT_BATCH_SQL =
+        "SELECT id, user_id FROM tasks WHERE status IN ('COMPLETED', 'CANCELLED') AND updated_at < :cutoff " +
+        "AND (series_id IS NULL OR occurrence_date < :cutoff) LIMIT :limit FOR UPDATE SKIP LOCKED";
+
+    private static final String COPY_SQL =
+        "INSERT INTO archived_tasks (id, title, description, status, priority, due_date, created_at, " +
+        "updated_at, completed_at, recurrence, recurrence_interval, recurrence_until, series_id, occurrence_date, " +
+        "tags, version, user_id, archived_at) " +
+        "SELECT id, title, description, status, priority, due_date, created_at, updated_at, completed_at, " +
+        "recurrence, recurrence_interval, recurrence_until, series_id, occurrence_date, " +
+        "tags, version, user_id, :archivedAt FROM tasks WHERE id IN (:ids)";
+
+    private static final String DELETE_SQL = "DELETE FROM tasks WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final InvalidationBus invalidationBus;
+
+    @Value("${application.tasks.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.tasks.archive.age-days:30}")
+    private long ageDays;
+
+    @Value("${application.tasks.archive.batch-size:200}")
+    private int batchSize;
+
+    @Value("${application.tasks.archive.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${application.tasks.archive.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    public TaskArchiver(NamedParameterJdbcTemplate jdbcTemplate, ShardRouter shardRouter, InvalidationBus invalidationBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Scheduled(fixedDelayString = "${application.tasks.archive.interval-ms:600000}",
+               initialDelayString = "${application.tasks.archive.initial-delay-ms:120000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(ageDays);
+        for (String shard : shardRouter.getShardNames()) {
+            int total = archiveShard(shard, cutoff);
+            if (total > 0) {
+                logger.info("Archived {} finished tasks older than {} on shard {}", total, cutoff, shard);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private int archiveShard(String shard, LocalDateTime cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = shardRouter.callInShard(shard, () -> archiveBatch(cutoff));
+            total += moved != null ? moved : 0;
+            if (moved == null || moved < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        Map<Long, Long> owners = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_BATCH_SQL, new MapSqlParameterSource()
+            .addValue("cutoff", Timestamp.valueOf(cutoff))
+            .addValue("limit", batchSize), rs -> {
+                owners.put(rs.getLong("id"), rs.getLong("user_id"));
+            });
+        if (owners.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(owners.keySet());
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("ids", ids)
+            .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        jdbcTemplate.update(COPY_SQL, params);
+        jdbcTemplate.update(DELETE_SQL, params);
+        // Las listas sin archivadas de estos usuarios cambian
+        for (Long userId : new HashSet<>(owners.values())) {
+            invalidationBus.publish(InvalidationBus.TASKS, String.valueOf(userId));
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,176 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.TaskHistoryPoint;
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.entity.ArchivedTask;
+import com.gestion.backend.entity.Task;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.entity.TaskDailyStat;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.event.TaskChangedEvent;
+import com.gestion.backend.repository.ArchivedTaskRepository;
+import com.gestion.backend.repository.TaskDailyStatRepository;
+import com.gestion.backend.repository.TaskHistorySeedRepository;
+import com.gestion.backend.repository.TaskRepository;
+import com.gestion.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Serie diaria de abiertas/completadas por usuario para los gráficos de burndown.
+// Se actualiza en la misma transacción que el cambio de la tarea y se consulta en O(días).
+@Service
+@RequiredArgsConstructor
+public class TaskHistoryService {
+
+    private final TaskDailyStatRepository dailyStatRepository;
+    private final TaskHistorySeedRepository seedRepository;
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final UserRepository userRepository;
+
+    @Value("${application.tasks.history.max-days:365}")
+    private int maxDays;
+
+    // BEFORE_COMMIT: la fila del día se confirma o se revierte junto con la tarea.
+    // Corre dentro de la transacción de TaskService, por eso no lleva @Transactional.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTaskChanged(TaskChangedEvent event) {
+        long openDelta = open(event.getCurrent()) - open(event.getPrevious());
+        long completedDelta = completed(event.getCurrent()) - completed(event.getPrevious());
+        if (openDelta == 0 && completedDelta == 0) {
+            return;
+        }
+        Long userId = event.getUserId();
+        // Sin filas previas se siembra desde las tareas, que ya incluyen este cambio. Solo
+        // siembra quien inserta el marcador: una escritura concurrente espera en su INSERT y
+        // después suma su delta, relativo, sobre lo ya sembrado.
+        if (!dailyStatRepository.existsByUserId(userId) && seedRepository.claim(userId, LocalDateTime.now()) == 1) {
+            for (TaskDailyStat row : computeSeed(userId)) {
+                dailyStatRepository.upsert(userId, row.getStatDate(), row.getOpenCount(), row.getCompletedCount());
+            }
+        } else {
+            dailyStatRepository.addDelta(userId, LocalDate.now(), openDelta, completedDelta);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskHistoryPoint> getHistory(String username, int days) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (days < 1 || days > maxDays) {
+            throw new IllegalArgumentException("Days must be between 1 and " + maxDays);
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(days - 1L);
+        TaskDailyStat base;
+        List<TaskDailyStat> window;
+        if (dailyStatRepository.existsByUserId(user.getId())) {
+            base = dailyStatRepository
+                .findFirstByUserIdAndStatDateLessThanOrderByStatDateDesc(user.getId(), start)
+                .orElse(null);
+            window = dailyStatRepository.findByUserIdAndStatDateBetweenOrderByStatDateAsc(user.getId(), start, today);
+        } else {
+            // Aún sin serie: se calcula sin guardarla; la siembra la hace la primera escritura
+            List<TaskDailyStat> seeded = computeSeed(user.getId());
+            base = seeded.stream().filter(row -> row.getStatDate().isBefore(start)).reduce((a, b) -> b).orElse(null);
+            window = seeded.stream().filter(row -> !row.getStatDate().isBefore(start)).toList();
+        }
+        long open = 0;
+        long completed = 0;
+        if (base != null) {
+            open = base.getOpenCount();
+            completed = base.getCompletedCount();
+        }
+
+        // Relleno de los días sin fila con los últimos valores conocidos
+        Iterator<TaskDailyStat> rows = window.iterator();
+        TaskDailyStat next = rows.hasNext() ? rows.next() : null;
+        List<TaskHistoryPoint> points = new ArrayList<>(days);
+        for (LocalDate day = start; !day.isAfter(today); day = day.plusDays(1)) {
+            long previousCompleted = completed;
+            if (next != null && next.getStatDate().equals(day)) {
+                open = next.getOpenCount();
+                completed = next.getCompletedCount();
+                next = rows.hasNext() ? rows.next() : null;
+            }
+            points.add(new TaskHistoryPoint(day, open, completed, day.equals(start) ? 0 : completed - previousCompleted));
+        }
+        return points;
+    }
+
+    // Primera vez para un usuario: reconstruye la ventana desde createdAt/completedAt en una
+    // sola pasada (una cancelación se fecha por updatedAt). A partir de ahí solo hay deltas.
+    // Devuelve solo los días en los que algo cambia, más el de hoy, en orden de fecha.
+    private List<TaskDailyStat> computeSeed(Long userId) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(maxDays - 1L);
+        int size = maxDays;
+        long[] openChanges = new long[size];
+        long[] completedChanges = new long[size];
+
+        for (Task task : taskRepository.findByUserIdOrderByCreatedAtDesc(userId)) {
+            count(start, task.getCreatedAt(), task.getStatus(), task.getCompletedAt(), task.getUpdatedAt(),
+                openChanges, completedChanges);
+        }
+        for (ArchivedTask task : archivedTaskRepository.findByUserIdOrderByCreatedAtDesc(userId)) {
+            count(start, task.getCreatedAt(), task.getStatus(), task.getCompletedAt(), task.getUpdatedAt(),
+                openChanges, completedChanges);
+        }
+
+        List<TaskDailyStat> rows = new ArrayList<>();
+        long open = 0;
+        long completed = 0;
+        for (int i = 0; i < size; i++) {
+            open += openChanges[i];
+            completed += completedChanges[i];
+            LocalDate day = start.plusDays(i);
+            if (openChanges[i] != 0 || completedChanges[i] != 0 || day.equals(today)) {
+                rows.add(new TaskDailyStat(null, userId, day, open, completed));
+            }
+        }
+        return rows;
+    }
+
+    private static void count(LocalDate start, LocalDateTime createdAt, TaskStatus status,
+                              LocalDateTime completedAt, LocalDateTime updatedAt,
+                              long[] openChanges, long[] completedChanges) {
+        openChanges[index(start, createdAt)]++;
+        LocalDateTime closedAt = switch (status) {
+            case COMPLETED -> completedAt != null ? completedAt : updatedAt;
+            case CANCELLED -> updatedAt;
+            default -> null;
+        };
+        if (closedAt != null) {
+            openChanges[index(start, closedAt)]--;
+        }
+        if (status == TaskStatus.COMPLETED) {
+            completedChanges[index(start, closedAt)]++;
+        }
+    }
+
+    // Posición en la ventana; lo anterior al inicio se acumula en la primera celda
+    private static int index(LocalDate start, LocalDateTime at) {
+        long offset = ChronoUnit.DAYS.between(start, at.toLocalDate());
+        return (int) Math.max(0, Math.min(offset, ChronoUnit.DAYS.between(start, LocalDate.now())));
+    }
+
+    private static long open(TaskResponse task) {
+        return task != null && (task.getStatus() == TaskStatus.PENDING || task.getStatus() == TaskStatus.IN_PROGRESS) ? 1 : 0;
+    }
+
+    private static long completed(TaskResponse task) {
+        return task != null && task.getStatus() == TaskStatus.COMPLETED ? 1 : 0;
+    }
+}
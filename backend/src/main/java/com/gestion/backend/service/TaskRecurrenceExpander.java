@@ -0,0 +1,175 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.entity.Task.TaskRecurrence;
+import com.gestion.backend.entity.Task.TaskStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Ocurrencias de las tareas recurrentes dentro de una ventana, calculadas al leer y nunca
+// guardadas: la ocurrencia n es dueDate + n * intervalo (siempre desde la primera, así un
+// día 31 mensual cae en el último día de los meses cortos sin desplazarse). La primera de la
+// ventana se obtiene por aritmética, sin recorrer las anteriores, y hay topes por serie y por
+// petición. Las fechas que ya tienen fila (ocurrencia modificada o completada) se saltan.
+@Component
+public class TaskRecurrenceExpander {
+
+    @Value("${application.tasks.recurrence.max-occurrences-per-series:100}")
+    private int maxPerSeries;
+
+    @Value("${application.tasks.recurrence.max-occurrences:1000}")
+    private int maxOccurrences;
+
+    @Value("${application.tasks.recurrence.max-window-days:366}")
+    private long maxWindowDays;
+
+    // Ventana del listado cuando el cliente no la indica: desde hoy
+    @Value("${application.tasks.recurrence.list-window-days:30}")
+    private long listWindowDays;
+
+    @Value("${application.tasks.recurrence.overdue-lookback-days:14}")
+    private long overdueLookbackDays;
+
+    // TaskArchiver solo mueve a archived_tasks las ocurrencias con fecha anterior a este plazo:
+    // antes de él no se calcula nada, o las archivadas reaparecerían como pendientes
+    @Value("${application.tasks.archive.age-days:30}")
+    private long archiveAgeDays;
+
+    // Listado: from/to null = desde el inicio de hoy durante list-window-days. La fila de la
+    // serie ya está en el listado y es su primera ocurrencia, así que esa no se repite.
+    public List<TaskResponse> expandForList(List<TaskResponse> tasks, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        return expand(tasks, start, to != null ? to : start.plusDays(listWindowDays), 1);
+    }
+
+    // Ocurrencias vencidas sin fila de los últimos overdue-lookback-days
+    public List<TaskResponse> expandOverdue(List<TaskResponse> tasks, LocalDateTime now) {
+        return expand(tasks, now.minusDays(overdueLookbackDays), now);
+    }
+
+    // tasks: todas las tareas no archivadas del usuario (series y filas de ocurrencias).
+    // Devuelve las ocurrencias sin fila con fecha en [from, to), por serie en orden de fecha,
+    // incluida la primera (para consultas que no devuelven la fila de la serie).
+    public List<TaskResponse> expand(List<TaskResponse> tasks, LocalDateTime from, LocalDateTime to) {
+        return expand(tasks, from, to, 0);
+    }
+
+    private List<TaskResponse> expand(List<TaskResponse> tasks, LocalDateTime from, LocalDateTime to, long firstOccurrence) {
+        LocalDateTime start = max(from, LocalDateTime.now().minusDays(archiveAgeDays));
+        LocalDateTime end = min(to, start.plusDays(maxWindowDays));
+        List<TaskResponse> occurrences = new ArrayList<>();
+        if (!start.isBefore(end)) {
+            return occurrences;
+        }
+        Set<Occurrence> materialized = new HashSet<>();
+        for (TaskResponse task : tasks) {
+            if (task.getSeriesId() != null && task.getOccurrenceDate() != null) {
+                materialized.add(new Occurrence(task.getSeriesId(), task.getOccurrenceDate()));
+            }
+        }
+        for (TaskResponse series : tasks) {
+            if (!isActiveSeries(series)) {
+                continue;
+            }
+            int interval = interval(series);
+            ChronoUnit unit = unit(series.getRecurrence());
+            int added = 0;
+            for (long n = Math.max(firstOccurrence, firstIndex(series.getDueDate(), interval, unit, start)); added < maxPerSeries; n++) {
+                if (occurrences.size() >= maxOccurrences) {
+                    return occurrences;
+                }
+                LocalDateTime date = occurrence(series.getDueDate(), interval, unit, n);
+                if (!date.isBefore(end) || (series.getRecurrenceUntil() != null && date.isAfter(series.getRecurrenceUntil()))) {
+                    break;
+                }
+                if (!materialized.contains(new Occurrence(series.getId(), date))) {
+                    occurrences.add(virtualOccurrence(series, date));
+                    added++;
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    // Para materializar: la fecha tiene que ser exactamente una ocurrencia de la serie
+    public boolean isOccurrence(TaskResponse series, LocalDateTime date) {
+        if (!isActiveSeries(series) || date.isBefore(series.getDueDate())
+                || (series.getRecurrenceUntil() != null && date.isAfter(series.getRecurrenceUntil()))) {
+            return false;
+        }
+        int interval = interval(series);
+        ChronoUnit unit = unit(series.getRecurrence());
+        return occurrence(series.getDueDate(), interval, unit, firstIndex(series.getDueDate(), interval, unit, date)).equals(date);
+    }
+
+    // Una serie cancelada o completada deja de generar ocurrencias
+    private static boolean isActiveSeries(TaskResponse task) {
+        return task.getRecurrence() != null && task.getDueDate() != null && task.getId() != null
+            && task.getStatus() != TaskStatus.COMPLETED && task.getStatus() != TaskStatus.CANCELLED;
+    }
+
+    // Primer n con occurrence(n) >= start
+    private static long firstIndex(LocalDateTime anchor, int interval, ChronoUnit unit, LocalDateTime start) {
+        if (!start.isAfter(anchor)) {
+            return 0;
+        }
+        long n = unit.between(anchor, start) / interval;
+        while (occurrence(anchor, interval, unit, n).isBefore(start)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static LocalDateTime occurrence(LocalDateTime anchor, int interval, ChronoUnit unit, long n) {
+        return anchor.plus(n * interval, unit);
+    }
+
+    private static int interval(TaskResponse series) {
+        return series.getRecurrenceInterval() != null && series.getRecurrenceInterval() > 0 ? series.getRecurrenceInterval() : 1;
+    }
+
+    private static ChronoUnit unit(TaskRecurrence recurrence) {
+        return switch (recurrence) {
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+            case YEARLY -> ChronoUnit.YEARS;
+        };
+    }
+
+    private static TaskResponse virtualOccurrence(TaskResponse series, LocalDateTime date) {
+        TaskResponse occurrence = new TaskResponse();
+        occurrence.setTitle(series.getTitle());
+        occurrence.setDescription(series.getDescription());
+        occurrence.setStatus(TaskStatus.PENDING);
+        occurrence.setPriority(series.getPriority());
+        occurrence.setDueDate(date);
+        occurrence.setCreatedAt(series.getCreatedAt());
+        occurrence.setUpdatedAt(series.getUpdatedAt());
+        occurrence.setSeriesId(series.getId());
+        occurrence.setOccurrenceDate(date);
+        occurrence.setTags(series.getTags());
+        occurrence.setUserId(series.getUserId());
+        occurrence.setUsername(series.getUsername());
+        occurrence.setVirtual(true);
+        return occurrence;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private record Occurrence(Long seriesId, LocalDateTime date) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.TaskLeadTimeBucket;
+import com.gestion.backend.entity.TaskRollup.Granularity;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Deltas de un cambio de tarea (o de un día del backfill) por aplicar sobre task_rollups y
+// el histograma de tiempos. Cada cambio se suma a la cubeta horaria y a la diaria; las
+// cubetas que se compensan (restar el estado anterior y sumar el nuevo) no se escriben.
+class TaskRollupDeltas {
+
+    private final Map<RollupKey, Counts> rollups = new ConcurrentHashMap<>();
+    private final Map<HistogramKey, long[]> histogram = new ConcurrentHashMap<>();
+
+    void created(LocalDateTime createdAt, TaskPriority priority, int sign) {
+        apply(createdAt, priority, counts -> counts.created += sign);
+    }
+
+    void completed(LocalDateTime createdAt, LocalDateTime completedAt, LocalDateTime dueDate,
+                   TaskPriority priority, int sign) {
+        long leadMinutes = Math.max(0, Duration.between(createdAt, completedAt).toMinutes());
+        boolean late = dueDate != null && completedAt.isAfter(dueDate);
+        apply(completedAt, priority, counts -> {
+            counts.completed += sign;
+            counts.leadTimeMinutes += sign * leadMinutes;
+            if (late) {
+                counts.completedLate += sign;
+            }
+        });
+        HistogramKey key = new HistogramKey(completedAt.toLocalDate(), priority, TaskLeadTimeBucket.indexFor(leadMinutes));
+        histogram.compute(key, (k, v) -> {
+            long[] count = v != null ? v : new long[1];
+            count[0] += sign;
+            return count;
+        });
+    }
+
+    void cancelled(LocalDateTime at, TaskPriority priority, int sign) {
+        apply(at, priority, counts -> counts.cancelled += sign);
+    }
+
+    List<RollupDelta> drainRollups() {
+        List<RollupDelta> drained = new ArrayList<>();
+        for (RollupKey key : rollups.keySet()) {
+            Counts counts = rollups.remove(key);
+            if (counts != null && !counts.isZero()) {
+                drained.add(new RollupDelta(key, counts));
+            }
+        }
+        return drained;
+    }
+
+    List<HistogramDelta> drainHistogram() {
+        List<HistogramDelta> drained = new ArrayList<>();
+        for (HistogramKey key : histogram.keySet()) {
+            long[] count = histogram.remove(key);
+            if (count != null && count[0] != 0) {
+                drained.add(new HistogramDelta(key, count[0]));
+            }
+        }
+        return drained;
+    }
+
+    private void apply(LocalDateTime at, TaskPriority priority, Consumer<Counts> change) {
+        LocalDateTime hour = at.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime day = at.truncatedTo(ChronoUnit.DAYS);
+        for (RollupKey key : List.of(new RollupKey(Granularity.HOUR, hour, priority), new RollupKey(Granularity.DAY, day, priority))) {
+            rollups.compute(key, (k, v) -> {
+                Counts counts = v != null ? v : new Counts();
+                change.accept(counts);
+                return counts;
+            });
+        }
+    }
+
+    record RollupKey(Granularity granularity, LocalDateTime bucketStart, TaskPriority priority) {
+    }
+
+    record HistogramKey(LocalDate day, TaskPriority priority, int bucketIndex) {
+    }
+
+    record RollupDelta(RollupKey key, Counts counts) {
+    }
+
+    record HistogramDelta(HistogramKey key, long count) {
+    }
+
+    static final class Counts {
+        long created;
+        long completed;
+        long completedLate;
+        long cancelled;
+        long leadTimeMinutes;
+
+        boolean isZero() {
+            return created == 0 && completed == 0 && completedLate == 0 && cancelled == 0 && leadTimeMinutes == 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.event.TaskChangedEvent;
+import com.gestion.backend.service.TaskRollupDeltas.HistogramDelta;
+import com.gestion.backend.service.TaskRollupDeltas.RollupDelta;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.List;
+
+// Mantiene task_rollups y el histograma de tiempos de resolución con los deltas de cada
+// cambio de tarea, aplicados con INSERT ... ON DUPLICATE KEY UPDATE dentro de la misma
+// transacción, así que la tabla de tareas nunca se vuelve a leer y nada queda en memoria.
+// Los agregados viven junto a las tareas (en su shard). Borrar una tarea resta su
+// contribución, igual que el backfill, que cuenta las tareas vivas y las archivadas.
+@Component
+public class TaskRollupRecorder {
+
+    private static final String UPSERT_ROLLUP_SQL =
+        "INSERT INTO task_rollups (granularity, bucket_start, priority, created_count, completed_count, " +
+        "completed_late_count, cancelled_count, lead_time_minutes_sum) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE created_count = created_count + VALUES(created_count), " +
+        "completed_count = completed_count + VALUES(completed_count), " +
+        "completed_late_count = completed_late_count + VALUES(completed_late_count), " +
+        "cancelled_count = cancelled_count + VALUES(cancelled_count), " +
+        "lead_time_minutes_sum = lead_time_minutes_sum + VALUES(lead_time_minutes_sum)";
+
+    private static final String UPSERT_HISTOGRAM_SQL =
+        "INSERT INTO task_lead_time_histogram (bucket_day, priority, bucket_index, task_count) VALUES (?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE task_count = task_count + VALUES(task_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskRollupRecorder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // BEFORE_COMMIT: las filas de agregados, compartidas por todas las tareas de la misma hora
+    // y prioridad, solo quedan bloqueadas desde el final de la transacción hasta el commit
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskRollupDeltas deltas = new TaskRollupDeltas();
+        accumulate(deltas, event.getPrevious(), -1);
+        accumulate(deltas, event.getCurrent(), 1);
+        write(deltas.drainRollups(), deltas.drainHistogram());
+    }
+
+    // Resta la contribución del estado anterior y suma la del nuevo; en la práctica solo
+    // cambian las cubetas afectadas por la transición (completar, reabrir, cancelar...)
+    static void accumulate(TaskRollupDeltas deltas, TaskResponse task, int sign) {
+        if (task == null) {
+            return;
+        }
+        deltas.created(task.getCreatedAt(), task.getPriority(), sign);
+        if (task.getStatus() == TaskStatus.COMPLETED && task.getCompletedAt() != null) {
+            deltas.completed(task.getCreatedAt(), task.getCompletedAt(), task.getDueDate(), task.getPriority(), sign);
+        } else if (task.getStatus() == TaskStatus.CANCELLED && task.getUpdatedAt() != null) {
+            deltas.cancelled(task.getUpdatedAt(), task.getPriority(), sign);
+        }
+    }
+
+    void write(List<RollupDelta> rollups, List<HistogramDelta> histogram) {
+        if (!rollups.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_ROLLUP_SQL, rollups, rollups.size(), (ps, d) -> {
+                ps.setString(1, d.key().granularity().name());
+                ps.setTimestamp(2, Timestamp.valueOf(d.key().bucketStart()));
+                ps.setString(3, d.key().priority().name());
+                ps.setLong(4, d.counts().created);
+                ps.setLong(5, d.counts().completed);
+                ps.setLong(6, d.counts().completedLate);
+                ps.setLong(7, d.counts().cancelled);
+                ps.setLong(8, d.counts().leadTimeMinutes);
+            });
+        }
+        if (!histogram.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_HISTOGRAM_SQL, histogram, histogram.size(), (ps, d) -> {
+                ps.setDate(1, Date.valueOf(d.key().day()));
+                ps.setString(2, d.key().priority().name());
+                ps.setInt(3, d.key().bucketIndex());
+                ps.setLong(4, d.count());
+            });
+        }
+    }
+}
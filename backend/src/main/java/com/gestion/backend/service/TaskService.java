@@ -1,31 +1,76 @@
 package com.gestion.backend.service;
 
+import com.gestion.backend.dto.TaskHistoryPoint;
+import com.gestion.backend.dto.TaskPageResponse;
+import com.gestion.backend.dto.TaskQueryRequest;
 import com.gestion.backend.dto.TaskRequest;
 import com.gestion.backend.dto.TaskResponse;
 import com.gestion.backend.dto.TaskStatsResponse;
 import com.gestion.backend.dto.TaskUpdateRequest;
+import com.gestion.backend.entity.ArchivedTask;
+import com.gestion.backend.entity.TagSetConverter;
 import com.gestion.backend.entity.Task;
 import com.gestion.backend.entity.Task.TaskStatus;
 import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskRecurrence;
 import com.gestion.backend.entity.User;
+import com.gestion.backend.event.TaskChangedEvent;
+import com.gestion.backend.event.TaskChangedEvent.ChangeType;
+import com.gestion.backend.repository.ArchivedTaskRepository;
 import com.gestion.backend.repository.TaskRepository;
+import com.gestion.backend.repository.TaskSpecifications;
 import com.gestion.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class TaskService {
     
+    // Letras, dígitos y . _ : - (nada de comas: se guardan en una sola columna)
+    private static final Pattern TAG_PATTERN = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N}._:-]{0,39}");
+    private static final int MAX_TAGS = 20;
+    // Los ids se piden a la base en bloques para no pasarse de parámetros por sentencia
+    private static final int ID_BATCH_SIZE = 1000;
+    
     private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskHistoryService taskHistoryService;
+    private final InvalidationBus invalidationBus;
+    private final TaskWorkingSetCache taskCache;
+    private final TaskTagIndex tagIndex;
+    private final TaskRecurrenceExpander recurrenceExpander;
+    private final PlatformTransactionManager transactionManager;
+    // Lecturas idénticas simultáneas del mismo usuario comparten una sola ejecución
+    private final SingleFlight<ReadKey> readFlights = new SingleFlight<>(ReadKey::username);
     
     public TaskResponse createTask(TaskRequest request, String username) {
         User user = userRepository.findByUsername(username)
@@ -37,64 +82,191 @@ public class TaskService {
         task.setStatus(request.getStatus() != null ? request.getStatus() : TaskStatus.PENDING);
         task.setPriority(request.getPriority() != null ? request.getPriority() : TaskPriority.MEDIUM);
         task.setDueDate(request.getDueDate());
+        task.setTags(request.getTags() != null ? normalizeTags(request.getTags()) : new TreeSet<>());
         task.setUser(user);
+        applyRecurrence(task, request.getRecurrence(), request.getRecurrenceInterval(), request.getRecurrenceUntil());
         
-        Task savedTask = taskRepository.save(task);
-        return mapToResponse(savedTask);
+        return created(taskRepository.save(task), user);
     }
     
-    @Transactional(readOnly = true)
-    public List<TaskResponse> getAllUserTasks(String username) {
+    // Modifica (o completa) una ocurrencia de una tarea recurrente. La primera vez se crea su
+    // fila a partir de la serie; a partir de ahí es una tarea normal y la expansión la salta.
+    public TaskResponse updateOccurrence(Long seriesId, LocalDateTime occurrenceDate, TaskUpdateRequest request, String username) {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Task> tasks = taskRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
-        return tasks.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+        Task series = taskRepository.findByIdAndUserIdForUpdate(seriesId, user.getId())
+            .orElseThrow(() -> new RuntimeException("Task not found"));
+        Optional<Task> existing = taskRepository.findBySeriesIdAndOccurrenceDate(seriesId, occurrenceDate);
+        if (existing.isPresent()) {
+            return updateTask(existing.get().getId(), request, username);
+        }
+        if (!recurrenceExpander.isOccurrence(mapToResponse(series), occurrenceDate)) {
+            throw new IllegalArgumentException("Not an occurrence of this task");
+        }
+        if (request.getRecurrence() != null || request.getRecurrenceInterval() != null || request.getRecurrenceUntil() != null) {
+            throw new IllegalArgumentException("An occurrence cannot recur");
+        }
+        
+        Task task = new Task();
+        task.setTitle(series.getTitle());
+        task.setDescription(series.getDescription());
+        task.setPriority(series.getPriority());
+        task.setDueDate(occurrenceDate);
+        task.setTags(new TreeSet<>(series.getTags()));
+        task.setSeriesId(seriesId);
+        task.setOccurrenceDate(occurrenceDate);
+        task.setUser(user);
+        applyUpdate(task, request);
+        
+        return created(taskRepository.save(task), user);
+    }
+    
+    private TaskResponse created(Task savedTask, User user) {
+        TaskResponse response = mapToResponse(savedTask);
+        eventPublisher.publishEvent(new TaskChangedEvent(ChangeType.CREATED, null, response));
+        taskCache.onCreated(response);
+        tagIndex.onCreated(response);
+        afterWrite(user);
+        return response;
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TaskResponse> getAllUserTasks(String username) {
+        return getAllUserTasks(username, false);
+    }
+    
+    // includeArchived suma las tareas movidas a archived_tasks por TaskArchiver
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TaskResponse> getAllUserTasks(String username, boolean includeArchived) {
+        return getAllUserTasks(username, includeArchived, null, null);
     }
     
-    @Transactional(readOnly = true)
+    // Con from o to, las tareas recurrentes añaden sus ocurrencias sin fila con fecha en [from, to)
+    // (el extremo que falte, ver TaskRecurrenceExpander), con la fecha de creación de su serie.
+    // Sin ellos solo hay filas: las ocurrencias calculadas no tienen id.
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TaskResponse> getAllUserTasks(String username, boolean includeArchived, LocalDateTime from, LocalDateTime to) {
+        return coalesced(new ReadKey(username, "tasks", Arrays.asList(includeArchived, from, to)), () -> {
+            long generation = taskCache.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            List<TaskResponse> workingSet = workingSet(user, generation);
+            List<TaskResponse> occurrences = from != null || to != null
+                ? recurrenceExpander.expandForList(workingSet, from, to)
+                : List.of();
+            if (includeArchived) {
+                List<Task> tasks = taskRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+                return withOccurrences(merge(tasks, archivedTaskRepository.findByUserIdOrderByCreatedAtDesc(user.getId()), user),
+                    occurrences, Comparator.comparing(TaskResponse::getCreatedAt).reversed());
+            }
+            return withOccurrences(workingSet, occurrences, Comparator.comparing(TaskResponse::getCreatedAt).reversed());
+        });
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<TaskResponse> getUserTasksByStatus(String username, TaskStatus status) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Task> tasks = taskRepository.findByUserIdAndStatusOrderByCreatedAtDesc(user.getId(), status);
-        return tasks.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+        return getUserTasksByStatus(username, status, false);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TaskResponse> getUserTasksByStatus(String username, TaskStatus status, boolean includeArchived) {
+        return coalesced(new ReadKey(username, "status", Arrays.asList(status, includeArchived)), () -> {
+            long generation = taskCache.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            if (includeArchived) {
+                List<Task> tasks = taskRepository.findByUserIdAndStatusOrderByCreatedAtDesc(user.getId(), status);
+                return merge(tasks, archivedTaskRepository.findByUserIdAndStatusOrderByCreatedAtDesc(user.getId(), status), user);
+            }
+            return workingSet(user, generation).stream()
+                .filter(task -> task.getStatus() == status)
+                .collect(Collectors.toList());
+        });
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<TaskResponse> getUserTasksByPriority(String username, TaskPriority priority) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Task> tasks = taskRepository.findByUserIdAndPriorityOrderByCreatedAtDesc(user.getId(), priority);
-        return tasks.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+        return coalesced(new ReadKey(username, "priority", priority), () -> {
+            long generation = taskCache.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            return workingSet(user, generation).stream()
+                .filter(task -> task.getPriority() == priority)
+                .collect(Collectors.toList());
+        });
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public TaskResponse getTaskById(Long taskId, String username) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Task task = taskRepository.findByIdAndUserId(taskId, user.getId())
-            .orElseThrow(() -> new RuntimeException("Task not found"));
-        
-        return mapToResponse(task);
+        return getTaskById(taskId, username, false);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public TaskResponse getTaskById(Long taskId, String username, boolean includeArchived) {
+        return coalesced(new ReadKey(username, "task", Arrays.asList(taskId, includeArchived)), () -> {
+            long generation = taskCache.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            // El conjunto en memoria está completo: si no está ahí, solo puede estar archivada
+            for (TaskResponse task : workingSet(user, generation)) {
+                if (task.getId().equals(taskId)) {
+                    return task;
+                }
+            }
+            if (includeArchived) {
+                return archivedTaskRepository.findByIdAndUserId(taskId, user.getId())
+                    .map(archived -> mapToResponse(archived, user))
+                    .orElseThrow(() -> new RuntimeException("Task not found"));
+            }
+            throw new RuntimeException("Task not found");
+        });
     }
     
     public TaskResponse updateTask(Long taskId, TaskUpdateRequest request, String username) {
+        return updateTask(taskId, request, username, null);
+    }
+    
+    // expectedVersion viene del If-Match; null actualiza sin precondición
+    // (el @Version sigue impidiendo que una escritura concurrente se pierda)
+    public TaskResponse updateTask(Long taskId, TaskUpdateRequest request, String username, Long expectedVersion) {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         Task task = taskRepository.findByIdAndUserId(taskId, user.getId())
             .orElseThrow(() -> new RuntimeException("Task not found"));
         
-        // Actualizar solo los campos que no son null en el request
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Task.class, taskId);
+        }
+        TaskResponse previous = mapToResponse(task);
+        applyUpdate(task, request);
+        if (request.getRecurrence() != null || request.getRecurrenceInterval() != null || request.getRecurrenceUntil() != null) {
+            if (task.getSeriesId() != null) {
+                throw new IllegalArgumentException("An occurrence cannot recur");
+            }
+            applyRecurrence(task,
+                request.getRecurrence() != null ? request.getRecurrence() : task.getRecurrence(),
+                request.getRecurrenceInterval() != null ? request.getRecurrenceInterval() : task.getRecurrenceInterval(),
+                request.getRecurrenceUntil() != null ? request.getRecurrenceUntil() : task.getRecurrenceUntil());
+        }
+        
+        // Flush inmediato para que el conflicto de versión se detecte aquí y la respuesta lleve la versión nueva
+        Task updatedTask = taskRepository.saveAndFlush(task);
+        TaskResponse response = mapToResponse(updatedTask);
+        eventPublisher.publishEvent(new TaskChangedEvent(ChangeType.UPDATED, previous, response));
+        taskCache.onUpdated(response);
+        tagIndex.onUpdated(response);
+        afterWrite(user);
+        return response;
+    }
+    
+    // Actualizar solo los campos que no son null en el request
+    private void applyUpdate(Task task, TaskUpdateRequest request) {
         if (request.getTitle() != null && !request.getTitle().trim().isEmpty()) {
             task.setTitle(request.getTitle());
         }
@@ -110,11 +282,32 @@ public class TaskService {
         if (request.getDueDate() != null) {
             task.setDueDate(request.getDueDate());
         }
-        
-        Task updatedTask = taskRepository.save(task);
-        return mapToResponse(updatedTask);
+        if (request.getTags() != null) {
+            task.setTags(normalizeTags(request.getTags()));
+        }
+    }
+    
+    // La serie parte de dueDate, que pasa a ser obligatoria
+    private static void applyRecurrence(Task task, TaskRecurrence recurrence, Integer interval, LocalDateTime until) {
+        if (recurrence == null) {
+            if (interval != null || until != null) {
+                throw new IllegalArgumentException("Recurrence is required");
+            }
+            return;
+        }
+        if (task.getDueDate() == null) {
+            throw new IllegalArgumentException("A recurring task needs a due date");
+        }
+        if (until != null && until.isBefore(task.getDueDate())) {
+            throw new IllegalArgumentException("Recurrence must not end before the due date");
+        }
+        task.setRecurrence(recurrence);
+        task.setRecurrenceInterval(interval != null ? interval : 1);
+        task.setRecurrenceUntil(until);
     }
     
+    // Una ocurrencia no se borra: sin su fila la expansión la volvería a calcular como pendiente,
+    // así que queda cancelada. Una serie se borra con todas sus ocurrencias materializadas.
     public void deleteTask(Long taskId, String username) {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
@@ -122,70 +315,238 @@ public class TaskService {
         Task task = taskRepository.findByIdAndUserId(taskId, user.getId())
             .orElseThrow(() -> new RuntimeException("Task not found"));
         
+        if (task.getSeriesId() != null) {
+            TaskUpdateRequest cancel = new TaskUpdateRequest();
+            cancel.setStatus(TaskStatus.CANCELLED);
+            updateTask(taskId, cancel, username);
+            return;
+        }
+        
+        deleted(task, user);
+        if (task.getRecurrence() != null) {
+            // Después de borrar la serie: una ocurrencia que se estuviera materializando ya confirmó
+            taskRepository.flush();
+            for (Task occurrence : taskRepository.findBySeriesIdForUpdate(taskId)) {
+                deleted(occurrence, user);
+            }
+        }
+        afterWrite(user);
+    }
+    
+    private void deleted(Task task, User user) {
+        TaskResponse previous = mapToResponse(task);
         taskRepository.delete(task);
+        eventPublisher.publishEvent(new TaskChangedEvent(ChangeType.DELETED, previous, null));
+        taskCache.onDeleted(user.getId(), task.getId());
+        tagIndex.onDeleted(user.getId(), task.getId());
+    }
+    
+    // Filtro booleano por etiquetas (todas / alguna / ninguna), estados y prioridades resuelto
+    // en TaskTagIndex; solo tareas no archivadas, ordenadas por fecha de creación descendente
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TaskResponse> filterTasks(String username, Collection<String> allTags, Collection<String> anyTags,
+                                          Collection<String> noneTags, Set<TaskStatus> statuses,
+                                          Set<TaskPriority> priorities) {
+        TaskTagIndex.Filter filter = new TaskTagIndex.Filter(normalizeTags(allTags), normalizeTags(anyTags),
+            normalizeTags(noneTags), statuses, priorities);
+        return coalesced(new ReadKey(username, "filter", filter), () -> {
+            long generation = taskCache.generation();
+            long indexGeneration = tagIndex.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            List<Long> ids = tagIndex.match(user.getId(), filter, indexGeneration, () -> workingSet(user, generation));
+            if (ids.isEmpty()) {
+                return List.<TaskResponse>of();
+            }
+            List<TaskResponse> cached = taskCache.get(user.getId());
+            if (cached != null) {
+                Set<Long> matching = new HashSet<>(ids);
+                return cached.stream()
+                    .filter(task -> matching.contains(task.getId()))
+                    .collect(Collectors.toList());
+            }
+            List<Task> tasks = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+                tasks.addAll(taskRepository.findByUserIdAndIdIn(user.getId(), ids.subList(from, Math.min(ids.size(), from + ID_BATCH_SIZE))));
+            }
+            return tasks.stream()
+                .sorted(Comparator.comparing(Task::getCreatedAt).reversed())
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        });
     }
     
-    @Transactional(readOnly = true)
+    // Cualquier combinación de estados, prioridades, rangos de fechas y texto en una sola
+    // consulta paginada por clave (ver TaskSpecifications); solo tareas no archivadas
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public TaskPageResponse queryTasks(String username, TaskQueryRequest query) {
+        TaskSpecifications.Cursor after = query.getAfter() != null && !query.getAfter().isBlank()
+            ? TaskSpecifications.Cursor.decode(query.getAfter())
+            : null;
+        int size = query.getSize();
+        return coalesced(new ReadKey(username, "query", query), () -> {
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            // Uno de más para saber si hay página siguiente
+            List<Task> page = taskRepository.findBy(TaskSpecifications.matching(user.getId(), query, after),
+                q -> q.sortBy(TaskSpecifications.sort(query)).limit(size + 1).all());
+            boolean hasMore = page.size() > size;
+            List<Task> tasks = hasMore ? page.subList(0, size) : page;
+            String nextCursor = hasMore
+                ? TaskSpecifications.cursorAfter(tasks.get(tasks.size() - 1), query).encode()
+                : null;
+            return new TaskPageResponse(
+                tasks.stream().map(this::mapToResponse).collect(Collectors.toList()),
+                nextCursor
+            );
+        });
+    }
+    
+    // Etiquetas en uso del usuario con su número de tareas no archivadas
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<String, Integer> getUserTags(String username) {
+        return coalesced(new ReadKey(username, "tags", null), () -> {
+            long generation = taskCache.generation();
+            long indexGeneration = tagIndex.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            return tagIndex.tagCounts(user.getId(), indexGeneration, () -> workingSet(user, generation));
+        });
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<TaskResponse> searchTasks(String username, String searchTerm) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Task> tasks = taskRepository.findByUserIdAndTitleOrDescriptionContaining(user.getId(), searchTerm);
-        return tasks.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+        return searchTasks(username, searchTerm, false);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TaskResponse> searchTasks(String username, String searchTerm, boolean includeArchived) {
+        return coalesced(new ReadKey(username, "search", Arrays.asList(searchTerm, includeArchived)), () -> {
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            List<Task> tasks = taskRepository.findByUserIdAndTitleOrDescriptionContaining(user.getId(), searchTerm);
+            if (includeArchived) {
+                return merge(tasks, archivedTaskRepository.findByUserIdAndTitleOrDescriptionContaining(user.getId(), searchTerm), user);
+            }
+            return tasks.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        });
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public TaskStatsResponse getUserTaskStats(String username) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Long userId = user.getId();
-        
-        long totalTasks = taskRepository.countByUserId(userId);
-        long pendingTasks = taskRepository.countByUserIdAndStatus(userId, TaskStatus.PENDING);
-        long inProgressTasks = taskRepository.countByUserIdAndStatus(userId, TaskStatus.IN_PROGRESS);
-        long completedTasks = taskRepository.countByUserIdAndStatus(userId, TaskStatus.COMPLETED);
-        long cancelledTasks = taskRepository.countByUserIdAndStatus(userId, TaskStatus.CANCELLED);
-        
-        // Tareas vencidas
-        List<Task> overdueTasks = taskRepository.findOverdueTasks(userId, LocalDateTime.now());
-        long overdueCount = overdueTasks.size();
-        
-        return new TaskStatsResponse(
-            totalTasks,
-            pendingTasks,
-            inProgressTasks,
-            completedTasks,
-            cancelledTasks,
-            overdueCount
-        );
+        return coalesced(new ReadKey(username, "stats", null), () -> {
+            long generation = taskCache.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            Long userId = user.getId();
+            
+            // Las terminadas archivadas siguen contando en las estadísticas
+            long totalTasks = taskRepository.countByUserId(userId) + archivedTaskRepository.countByUserId(userId);
+            long pendingTasks = taskRepository.countByUserIdAndStatus(userId, TaskStatus.PENDING);
+            long inProgressTasks = taskRepository.countByUserIdAndStatus(userId, TaskStatus.IN_PROGRESS);
+            long completedTasks = taskRepository.countByUserIdAndStatus(userId, TaskStatus.COMPLETED)
+                + archivedTaskRepository.countByUserIdAndStatus(userId, TaskStatus.COMPLETED);
+            long cancelledTasks = taskRepository.countByUserIdAndStatus(userId, TaskStatus.CANCELLED)
+                + archivedTaskRepository.countByUserIdAndStatus(userId, TaskStatus.CANCELLED);
+            
+            // Tareas vencidas: las mismas que devuelve getOverdueTasks, ocurrencias calculadas incluidas
+            LocalDateTime now = LocalDateTime.now();
+            long overdueCount = taskRepository.findOverdueTasks(userId, now).size()
+                + recurrenceExpander.expandOverdue(workingSet(user, generation), now).size();
+            
+            return new TaskStatsResponse(
+                totalTasks,
+                pendingTasks,
+                inProgressTasks,
+                completedTasks,
+                cancelledTasks,
+                overdueCount
+            );
+        });
+    }
+    
+    // Serie diaria de abiertas y completadas (burndown) de los últimos N días
+    public List<TaskHistoryPoint> getTaskHistory(String username, int days) {
+        return taskHistoryService.getHistory(username, days);
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<TaskResponse> getUpcomingTasks(String username, int days) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        LocalDateTime startDate = LocalDateTime.now();
-        LocalDateTime endDate = startDate.plusDays(days);
-        
-        List<Task> tasks = taskRepository.findUpcomingTasks(user.getId(), startDate, endDate);
-        return tasks.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+        return coalesced(new ReadKey(username, "upcoming", days), () -> {
+            long generation = taskCache.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            LocalDateTime startDate = LocalDateTime.now();
+            LocalDateTime endDate = startDate.plusDays(days);
+            
+            List<Task> tasks = taskRepository.findUpcomingTasks(user.getId(), startDate, endDate);
+            return withOccurrences(
+                tasks.stream().map(this::mapToResponse).collect(Collectors.toList()),
+                recurrenceExpander.expand(workingSet(user, generation), startDate, endDate),
+                Comparator.comparing(TaskResponse::getDueDate));
+        });
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<TaskResponse> getOverdueTasks(String username) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Task> tasks = taskRepository.findOverdueTasks(user.getId(), LocalDateTime.now());
-        return tasks.stream()
+        return coalesced(new ReadKey(username, "overdue", null), () -> {
+            long generation = taskCache.generation();
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            LocalDateTime now = LocalDateTime.now();
+            List<Task> tasks = taskRepository.findOverdueTasks(user.getId(), now);
+            return withOccurrences(
+                tasks.stream().map(this::mapToResponse).collect(Collectors.toList()),
+                recurrenceExpander.expandOverdue(workingSet(user, generation), now),
+                Comparator.comparing(TaskResponse::getDueDate));
+        });
+    }
+    
+    // Estadísticas del usuario cacheadas en cualquier nodo (las listas las mantiene TaskWorkingSetCache)
+    // y lecturas en vuelo que empezaron antes de la escritura
+    private void afterWrite(User user) {
+        invalidationBus.publish(InvalidationBus.TASK_STATS, String.valueOf(user.getId()));
+        TransactionCallbacks.afterCommit(() -> readFlights.invalidate(user.getUsername()));
+    }
+    
+    // Sin transacción del llamante la lectura se agrupa y corre en su propia transacción de solo
+    // lectura, así quien espera no retiene una conexión. Dentro de una transacción (una escritura
+    // en curso, el calentamiento) se lee directamente para ver sus cambios sin confirmar.
+    private <T> T coalesced(ReadKey key, Supplier<T> read) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return read.get();
+        }
+        return readFlights.execute(key, () -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            return transaction.execute(status -> read.get());
+        });
+    }
+    
+    private record ReadKey(String username, String query, Object arguments) {
+    }
+    
+    // Tareas no archivadas del usuario desde memoria; la primera lectura las carga todas.
+    // generation se toma antes de cualquier consulta de la transacción
+    private List<TaskResponse> workingSet(User user, long generation) {
+        List<TaskResponse> cached = taskCache.get(user.getId());
+        if (cached != null) {
+            return cached;
+        }
+        List<TaskResponse> loaded = taskRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
             .map(this::mapToResponse)
-            .collect(Collectors.toList());
+            .toList();
+        taskCache.put(user.getId(), loaded, generation);
+        return loaded;
     }
     
     private TaskResponse mapToResponse(Task task) {
@@ -199,8 +560,83 @@ public class TaskService {
         response.setCreatedAt(task.getCreatedAt());
         response.setUpdatedAt(task.getUpdatedAt());
         response.setCompletedAt(task.getCompletedAt());
+        response.setRecurrence(task.getRecurrence());
+        response.setRecurrenceInterval(task.getRecurrenceInterval());
+        response.setRecurrenceUntil(task.getRecurrenceUntil());
+        response.setSeriesId(task.getSeriesId());
+        response.setOccurrenceDate(task.getOccurrenceDate());
+        response.setTags(TagSetConverter.copyOf(task.getTags()));
         response.setUserId(task.getUser().getId());
         response.setUsername(task.getUser().getUsername());
+        response.setVersion(task.getVersion());
         return response;
     }
+    
+    private TaskResponse mapToResponse(ArchivedTask task, User user) {
+        TaskResponse response = new TaskResponse();
+        response.setId(task.getId());
+        response.setTitle(task.getTitle());
+        response.setDescription(task.getDescription());
+        response.setStatus(task.getStatus());
+        response.setPriority(task.getPriority());
+        response.setDueDate(task.getDueDate());
+        response.setCreatedAt(task.getCreatedAt());
+        response.setUpdatedAt(task.getUpdatedAt());
+        response.setCompletedAt(task.getCompletedAt());
+        response.setRecurrence(task.getRecurrence());
+        response.setRecurrenceInterval(task.getRecurrenceInterval());
+        response.setRecurrenceUntil(task.getRecurrenceUntil());
+        response.setSeriesId(task.getSeriesId());
+        response.setOccurrenceDate(task.getOccurrenceDate());
+        response.setTags(TagSetConverter.copyOf(task.getTags()));
+        response.setUserId(user.getId());
+        response.setUsername(user.getUsername());
+        response.setVersion(task.getVersion());
+        response.setArchived(true);
+        return response;
+    }
+    
+    // Ordenación estable: a igual clave las filas van antes que las ocurrencias calculadas
+    private static List<TaskResponse> withOccurrences(List<TaskResponse> tasks, List<TaskResponse> occurrences,
+                                                      Comparator<TaskResponse> order) {
+        if (occurrences.isEmpty()) {
+            return new ArrayList<>(tasks);
+        }
+        List<TaskResponse> combined = new ArrayList<>(tasks.size() + occurrences.size());
+        combined.addAll(tasks);
+        combined.addAll(occurrences);
+        combined.sort(order);
+        return combined;
+    }
+    
+    // Minúsculas y sin espacios alrededor; null se queda en null (sin cambios / sin filtro)
+    private static Set<String> normalizeTags(Collection<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        Set<String> normalized = new TreeSet<>();
+        for (String tag : tags) {
+            String value = tag != null ? tag.trim().toLowerCase(Locale.ROOT) : "";
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (!TAG_PATTERN.matcher(value).matches()) {
+                throw new IllegalArgumentException("Invalid tag: " + tag);
+            }
+            normalized.add(value);
+        }
+        if (normalized.size() > MAX_TAGS) {
+            throw new IllegalArgumentException("A task can have at most " + MAX_TAGS + " tags");
+        }
+        return normalized;
+    }
+    
+    // Une tareas calientes y archivadas manteniendo el orden por fecha de creación descendente
+    private List<TaskResponse> merge(List<Task> tasks, List<ArchivedTask> archived, User user) {
+        return Stream.concat(
+                tasks.stream().map(this::mapToResponse),
+                archived.stream().map(task -> mapToResponse(task, user)))
+            .sorted(Comparator.comparing(TaskResponse::getCreatedAt).reversed())
+            .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,412 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.entity.TagSetConverter;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Índice invertido en memoria por usuario para filtrar por etiquetas, estado y prioridad sin
+// recorrer sus tareas: cada tarea recibe un ordinal compacto y cada etiqueta, estado y
+// prioridad es un RoaringBitmap de ordinales. Un filtro es AND/OR/ANDNOT de bitmaps y
+// devuelve ids; las tareas se sacan después por id. Al arrancar se monta por lotes de
+// usuarios hasta max-users, se mantiene al confirmar cada escritura de TaskService y, si
+// falta un usuario (invalidación de otro nodo, expulsado por tamaño, orden dudoso entre
+// escrituras), se vuelve a montar desde su conjunto de tareas.
+@Component
+public class TaskTagIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskTagIndex.class);
+
+    private static final String USERS_SQL =
+        "SELECT DISTINCT user_id FROM tasks WHERE user_id > :after ORDER BY user_id LIMIT :limit";
+
+    private static final String REBUILD_SQL =
+        "SELECT id, user_id, version, status, priority, tags FROM tasks WHERE user_id IN (:userIds)";
+
+    private static final int STRIPES = 1024;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    // Orden de acceso: el primero es el menos usado. Guarda también las escrituras sobre cada índice
+    private final LinkedHashMap<Long, UserIndex> indexes = new LinkedHashMap<>(256, 0.75f, true);
+    // Un índice montado antes de una escritura confirmada del mismo usuario no se guarda: cada
+    // escritura deja su número de sequence en la franja del usuario, como TaskWorkingSetCache.
+    // Todo bajo el monitor de indexes.
+    private final AtomicLongArray lastWrite = new AtomicLongArray(STRIPES);
+    private long sequence;
+    private long lastClear;
+
+    @Value("${application.tasks.tags.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.tasks.tags.index.max-users:50000}")
+    private int maxUsers;
+
+    @Value("${application.tasks.tags.index.rebuild-batch-users:500}")
+    private int batchUsers;
+
+    public TaskTagIndex(NamedParameterJdbcTemplate jdbcTemplate, ShardRouter shardRouter, InvalidationBus invalidationBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        invalidationBus.subscribe(InvalidationBus.TASKS, new InvalidationBus.Listener() {
+            @Override
+            public void invalidate(String key) {
+                Long userId = Long.valueOf(key);
+                synchronized (indexes) {
+                    written(userId);
+                    indexes.remove(userId);
+                }
+            }
+
+            @Override
+            public void invalidateAll() {
+                synchronized (indexes) {
+                    lastClear = ++sequence;
+                    indexes.clear();
+                }
+            }
+        });
+    }
+
+    // Por lotes de usuarios para no tener en memoria más que un lote aparte de lo ya guardado
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        int stored = 0;
+        int read = 0;
+        for (String shard : shardRouter.getShardNames()) {
+            long after = 0;
+            while (size() < maxUsers) {
+                long from = after;
+                List<Long> userIds = shardRouter.callInShard(shard, () -> jdbcTemplate.queryForList(USERS_SQL,
+                    new MapSqlParameterSource().addValue("after", from).addValue("limit", batchUsers), Long.class));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                after = userIds.get(userIds.size() - 1);
+                read += userIds.size();
+                stored += rebuildBatch(shard, userIds);
+                if (userIds.size() < batchUsers) {
+                    break;
+                }
+            }
+        }
+        logger.info("Task tag index rebuilt for {} of {} users read", stored, read);
+    }
+
+    // Se toma antes de la primera consulta de la transacción que va a cargar las tareas
+    public long generation() {
+        synchronized (indexes) {
+            return sequence;
+        }
+    }
+
+    // Ids de las tareas no archivadas del usuario que cumplen el filtro, sin orden definido.
+    // loader solo se llama si el usuario no está indexado.
+    public List<Long> match(Long userId, Filter filter, long observedGeneration, Supplier<List<TaskResponse>> loader) {
+        return index(userId, observedGeneration, loader).match(filter);
+    }
+
+    // Número de tareas no archivadas por etiqueta
+    public Map<String, Integer> tagCounts(Long userId, long observedGeneration, Supplier<List<TaskResponse>> loader) {
+        return index(userId, observedGeneration, loader).tagCounts();
+    }
+
+    public void onCreated(TaskResponse task) {
+        apply(task.getUserId(), index -> index.putIfNewer(task, false));
+    }
+
+    public void onUpdated(TaskResponse task) {
+        apply(task.getUserId(), index -> index.putIfNewer(task, true));
+    }
+
+    public void onDeleted(Long userId, Long taskId) {
+        apply(userId, index -> {
+            index.remove(taskId);
+            return true;
+        });
+    }
+
+    public int getSize() {
+        return size();
+    }
+
+    private int size() {
+        synchronized (indexes) {
+            return indexes.size();
+        }
+    }
+
+    // Las escrituras confirmadas antes de la consulta ya están en ella; los usuarios con alguna
+    // confirmada durante el lote se quedan fuera y se montan más tarde al consultarlos.
+    // Un usuario ya montado por una lectura no se reemplaza.
+    private int rebuildBatch(String shard, List<Long> userIds) {
+        long observedGeneration = generation();
+        Map<Long, UserIndex> rebuilt = new HashMap<>();
+        RowCallbackHandler handler = rs -> {
+            TaskStatus status = TaskStatus.valueOf(rs.getString("status"));
+            TaskPriority priority = TaskPriority.valueOf(rs.getString("priority"));
+            rebuilt.computeIfAbsent(rs.getLong("user_id"), userId -> new UserIndex())
+                .put(rs.getLong("id"), rs.getObject("version", Long.class), status, priority, TagSetConverter.parse(rs.getString("tags")));
+        };
+        shardRouter.callInShard(shard, () -> {
+            jdbcTemplate.query(REBUILD_SQL, Map.of("userIds", userIds), handler);
+            return null;
+        });
+        int stored = 0;
+        synchronized (indexes) {
+            for (Map.Entry<Long, UserIndex> entry : rebuilt.entrySet()) {
+                if (indexes.size() >= maxUsers) {
+                    break;
+                }
+                if (!indexes.containsKey(entry.getKey()) && store(entry.getKey(), entry.getValue(), observedGeneration)) {
+                    stored++;
+                }
+            }
+        }
+        return stored;
+    }
+
+    // Única entrada al mapa, bajo su monitor: descarta lo montado antes de una escritura del
+    // usuario y expulsa a los menos usados por encima de max-users
+    private boolean store(Long userId, UserIndex index, long observedGeneration) {
+        if (lastWrite.get(stripe(userId)) > observedGeneration || lastClear > observedGeneration) {
+            return false;
+        }
+        indexes.put(userId, index);
+        Iterator<Long> eldest = indexes.keySet().iterator();
+        while (indexes.size() > maxUsers && eldest.hasNext()) {
+            if (eldest.next().equals(userId)) {
+                continue;
+            }
+            eldest.remove();
+        }
+        return true;
+    }
+
+    // Bajo el monitor de indexes: así los números de una franja solo crecen
+    private void written(Long userId) {
+        lastWrite.set(stripe(userId), ++sequence);
+    }
+
+    private static int stripe(Long userId) {
+        return (userId.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    private UserIndex index(Long userId, long observedGeneration, Supplier<List<TaskResponse>> loader) {
+        if (enabled) {
+            synchronized (indexes) {
+                UserIndex index = indexes.get(userId);
+                if (index != null) {
+                    return index;
+                }
+            }
+        }
+        UserIndex built = new UserIndex();
+        for (TaskResponse task : loader.get()) {
+            built.put(task.getId(), task.getVersion(), task.getStatus(), task.getPriority(), task.getTags());
+        }
+        // Dentro de una transacción de escritura las tareas podrían incluir cambios sin confirmar
+        if (enabled && !(TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+            synchronized (indexes) {
+                store(userId, built, observedGeneration);
+            }
+        }
+        return built;
+    }
+
+    // Se aplica al confirmar la transacción de TaskService; los demás nodos ya reciben la
+    // invalidación de TASKS que publica TaskWorkingSetCache y descartan el índice del usuario.
+    // Los afterCommit pueden llegar en cualquier orden: si change no puede aplicarse con
+    // seguridad devuelve false y se descarta el índice del usuario.
+    private void apply(Long userId, Predicate<UserIndex> change) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (indexes) {
+                written(userId);
+                UserIndex index = indexes.get(userId);
+                if (index != null && !change.test(index)) {
+                    indexes.remove(userId);
+                }
+            }
+        });
+    }
+
+    // Criterios vacíos o null no filtran. Las etiquetas llegan ya normalizadas.
+    public record Filter(Set<String> allTags, Set<String> anyTags, Set<String> noneTags,
+                         Set<TaskStatus> statuses, Set<TaskPriority> priorities) {
+    }
+
+    // Los bitmaps no admiten lecturas concurrentes con escrituras: todo bajo el monitor del índice
+    private static final class UserIndex {
+
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final Map<String, RoaringBitmap> byTag = new HashMap<>();
+        private final RoaringBitmap[] byStatus = newBitmaps(TaskStatus.values().length);
+        private final RoaringBitmap[] byPriority = newBitmaps(TaskPriority.values().length);
+        private final RoaringBitmap live = new RoaringBitmap();
+        // Ordinales liberados por borrados, para que los bitmaps sigan siendo densos
+        private final RoaringBitmap free = new RoaringBitmap();
+        private long[] taskIds = new long[16];
+        private int nextOrdinal;
+
+        // Solo una versión más nueva reemplaza; false si la tarea debía estar y no está o falta la versión
+        synchronized boolean putIfNewer(TaskResponse task, boolean mustExist) {
+            Entry current = entries.get(task.getId());
+            if (current == null) {
+                if (mustExist) {
+                    return false;
+                }
+                put(task.getId(), task.getVersion(), task.getStatus(), task.getPriority(), task.getTags());
+                return true;
+            }
+            if (task.getVersion() == null || current.version() == null) {
+                return false;
+            }
+            if (task.getVersion() > current.version()) {
+                put(task.getId(), task.getVersion(), task.getStatus(), task.getPriority(), task.getTags());
+            }
+            return true;
+        }
+
+        synchronized void put(Long taskId, Long version, TaskStatus status, TaskPriority priority, Collection<String> tags) {
+            Entry previous = entries.get(taskId);
+            int ordinal;
+            if (previous != null) {
+                ordinal = previous.ordinal();
+                unlink(previous);
+            } else {
+                ordinal = allocate(taskId);
+            }
+            Entry entry = new Entry(ordinal, version, status, priority, TagSetConverter.copyOf(tags));
+            entries.put(taskId, entry);
+            byStatus[status.ordinal()].add(ordinal);
+            byPriority[priority.ordinal()].add(ordinal);
+            for (String tag : entry.tags()) {
+                byTag.computeIfAbsent(tag, t -> new RoaringBitmap()).add(ordinal);
+            }
+            live.add(ordinal);
+        }
+
+        synchronized void remove(Long taskId) {
+            Entry entry = entries.remove(taskId);
+            if (entry != null) {
+                unlink(entry);
+                live.remove(entry.ordinal());
+                free.add(entry.ordinal());
+            }
+        }
+
+        synchronized List<Long> match(Filter filter) {
+            RoaringBitmap result = live.clone();
+            if (filter.allTags() != null) {
+                for (String tag : filter.allTags()) {
+                    result.and(tagBitmap(tag));
+                }
+            }
+            if (filter.anyTags() != null && !filter.anyTags().isEmpty()) {
+                RoaringBitmap any = new RoaringBitmap();
+                for (String tag : filter.anyTags()) {
+                    any.or(tagBitmap(tag));
+                }
+                result.and(any);
+            }
+            if (filter.noneTags() != null) {
+                for (String tag : filter.noneTags()) {
+                    result.andNot(tagBitmap(tag));
+                }
+            }
+            if (filter.statuses() != null && !filter.statuses().isEmpty()) {
+                RoaringBitmap statuses = new RoaringBitmap();
+                filter.statuses().forEach(status -> statuses.or(byStatus[status.ordinal()]));
+                result.and(statuses);
+            }
+            if (filter.priorities() != null && !filter.priorities().isEmpty()) {
+                RoaringBitmap priorities = new RoaringBitmap();
+                filter.priorities().forEach(priority -> priorities.or(byPriority[priority.ordinal()]));
+                result.and(priorities);
+            }
+            List<Long> ids = new ArrayList<>(result.getCardinality());
+            result.forEach((int ordinal) -> ids.add(taskIds[ordinal]));
+            return ids;
+        }
+
+        synchronized Map<String, Integer> tagCounts() {
+            Map<String, Integer> counts = new TreeMap<>();
+            byTag.forEach((tag, bitmap) -> counts.put(tag, bitmap.getCardinality()));
+            return counts;
+        }
+
+        private int allocate(Long taskId) {
+            int ordinal;
+            if (!free.isEmpty()) {
+                ordinal = free.first();
+                free.remove(ordinal);
+            } else {
+                ordinal = nextOrdinal++;
+                if (ordinal == taskIds.length) {
+                    taskIds = Arrays.copyOf(taskIds, taskIds.length * 2);
+                }
+            }
+            taskIds[ordinal] = taskId;
+            return ordinal;
+        }
+
+        private void unlink(Entry entry) {
+            byStatus[entry.status().ordinal()].remove(entry.ordinal());
+            byPriority[entry.priority().ordinal()].remove(entry.ordinal());
+            for (String tag : entry.tags()) {
+                RoaringBitmap bitmap = byTag.get(tag);
+                if (bitmap != null) {
+                    bitmap.remove(entry.ordinal());
+                    if (bitmap.isEmpty()) {
+                        byTag.remove(tag);
+                    }
+                }
+            }
+        }
+
+        private RoaringBitmap tagBitmap(String tag) {
+            RoaringBitmap bitmap = byTag.get(tag);
+            return bitmap != null ? bitmap : new RoaringBitmap();
+        }
+
+        private static RoaringBitmap[] newBitmaps(int count) {
+            RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+            for (int i = 0; i < count; i++) {
+                bitmaps[i] = new RoaringBitmap();
+            }
+            return bitmaps;
+        }
+
+        private record Entry(int ordinal, Long version, TaskStatus status, TaskPriority priority, Set<String> tags) {
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.TaskResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+// Tareas no archivadas de cada usuario en memoria, ordenadas como las devuelve la base
+// (createdAt descendente). Se cargan enteras en la primera lectura y TaskService las
+// mantiene al confirmar cada escritura; los demás nodos reciben una invalidación por el bus
+// y recargan en su siguiente lectura. El límite es de memoria estimada, no de usuarios:
+// al pasarlo se descartan los menos usados. Los TaskResponse cacheados no se modifican.
+// Las lecturas no toman ningún cerrojo; las escrituras en la caché se serializan entre sí.
+@Component
+public class TaskWorkingSetCache {
+
+    private static final int STRIPES = 1024;
+
+    private final InvalidationBus invalidationBus;
+    private final ConcurrentHashMap<Long, Snapshot> entries = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Una carga que empezó antes de una escritura confirmada del mismo usuario no puede guardar
+    // su resultado. Cada escritura toma un número de sequence y lo deja en la franja de su
+    // usuario (como en SingleFlight): la carga compara con el número que vio al empezar, que
+    // se toma antes de saber el usuario. Una colisión de franja solo descarta alguna carga.
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray lastWrite = new AtomicLongArray(STRIPES);
+    private long lastClear;
+    private long totalWeight;
+
+    @Value("${application.cache.tasks.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.cache.tasks.max-weight-bytes:67108864}")
+    private long maxWeight;
+
+    public TaskWorkingSetCache(InvalidationBus invalidationBus, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(InvalidationBus.TASKS, new InvalidationBus.Listener() {
+            @Override
+            public void invalidate(String key) {
+                Long userId = Long.valueOf(key);
+                synchronized (writeLock) {
+                    written(userId);
+                    remove(userId);
+                }
+            }
+
+            @Override
+            public void invalidateAll() {
+                synchronized (writeLock) {
+                    lastClear = sequence.incrementAndGet();
+                    entries.clear();
+                    totalWeight = 0;
+                }
+            }
+        });
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("cache.gets", hits, LongAdder::sum).tag("cache", "tasks").tag("result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", misses, LongAdder::sum).tag("cache", "tasks").tag("result", "miss").register(registry);
+            FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum).tag("cache", "tasks").register(registry);
+            Gauge.builder("cache.size", this, TaskWorkingSetCache::getSize).tag("cache", "tasks").register(registry);
+            Gauge.builder("cache.weight", this, TaskWorkingSetCache::getWeight).tag("cache", "tasks").baseUnit("bytes").register(registry);
+        });
+    }
+
+    // Se toma antes de la primera consulta de la transacción que va a cargar
+    public long generation() {
+        return sequence.get();
+    }
+
+    // null si el usuario no está cargado
+    public List<TaskResponse> get(Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        Snapshot snapshot = entries.get(userId);
+        if (snapshot == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        snapshot.lastAccess = System.nanoTime();
+        return snapshot.tasks;
+    }
+
+    public void put(Long userId, List<TaskResponse> tasks, long observedGeneration) {
+        // Dentro de una transacción de escritura la carga podría incluir cambios sin confirmar
+        if (!enabled || (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+            return;
+        }
+        Snapshot snapshot = new Snapshot(List.copyOf(tasks));
+        // Un único usuario no puede vaciar la caché de todos los demás
+        if (snapshot.weight > maxWeight / 4) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (lastWrite.get(stripe(userId)) > observedGeneration || lastClear > observedGeneration) {
+                return;
+            }
+            store(userId, snapshot);
+        }
+    }
+
+    public void onCreated(TaskResponse task) {
+        apply(task.getUserId(), tasks -> {
+            // Ya cargada por una lectura posterior al commit
+            if (indexOf(tasks, task.getId()) >= 0) {
+                return replaceIfNewer(tasks, task);
+            }
+            List<TaskResponse> updated = new ArrayList<>(tasks.size() + 1);
+            updated.add(task);
+            updated.addAll(tasks);
+            return updated;
+        });
+    }
+
+    // Los afterCommit de dos transacciones pueden llegar en cualquier orden: solo se reemplaza
+    // por una versión más nueva; si no está o la versión no ordena, se descarta el usuario
+    public void onUpdated(TaskResponse task) {
+        apply(task.getUserId(), tasks -> replaceIfNewer(tasks, task));
+    }
+
+    public void onDeleted(Long userId, Long taskId) {
+        apply(userId, tasks -> tasks.stream()
+            .filter(existing -> !existing.getId().equals(taskId))
+            .toList());
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public long getWeight() {
+        synchronized (writeLock) {
+            return totalWeight;
+        }
+    }
+
+    // Se aplica al confirmar la transacción de TaskService; a los demás nodos solo les llega la
+    // invalidación. change devuelve null cuando no se puede saber qué versión es la vigente.
+    private void apply(Long userId, UnaryOperator<List<TaskResponse>> change) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (writeLock) {
+                written(userId);
+                Snapshot current = entries.get(userId);
+                if (current == null) {
+                    return;
+                }
+                List<TaskResponse> changed = change.apply(current.tasks);
+                if (changed == null) {
+                    remove(userId);
+                } else if (changed != current.tasks) {
+                    store(userId, new Snapshot(List.copyOf(changed)));
+                }
+            }
+        });
+        invalidationBus.publishToOthers(InvalidationBus.TASKS, String.valueOf(userId));
+    }
+
+    // Con writeLock tomado: así los números de una franja solo crecen
+    private void written(Long userId) {
+        lastWrite.set(stripe(userId), sequence.incrementAndGet());
+    }
+
+    private static int stripe(Long userId) {
+        return (userId.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    private static int indexOf(List<TaskResponse> tasks, Long taskId) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId().equals(taskId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // null si la tarea no está o alguna versión falta; la misma lista si la cacheada no es más vieja
+    private static List<TaskResponse> replaceIfNewer(List<TaskResponse> tasks, TaskResponse task) {
+        int index = indexOf(tasks, task.getId());
+        if (index < 0 || task.getVersion() == null || tasks.get(index).getVersion() == null) {
+            return null;
+        }
+        if (task.getVersion() <= tasks.get(index).getVersion()) {
+            return tasks;
+        }
+        List<TaskResponse> updated = new ArrayList<>(tasks);
+        updated.set(index, task);
+        return updated;
+    }
+
+    // Al pasar el límite se baja hasta el 90% descartando por último acceso; el margen evita
+    // ordenar las entradas en cada inserción
+    private void store(Long userId, Snapshot snapshot) {
+        Snapshot previous = entries.put(userId, snapshot);
+        totalWeight += snapshot.weight - (previous != null ? previous.weight : 0);
+        if (totalWeight <= maxWeight) {
+            return;
+        }
+        List<Map.Entry<Long, Snapshot>> leastUsed = new ArrayList<>(entries.entrySet());
+        leastUsed.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        long target = maxWeight - maxWeight / 10;
+        for (Map.Entry<Long, Snapshot> entry : leastUsed) {
+            if (totalWeight <= target) {
+                break;
+            }
+            if (entry.getKey().equals(userId)) {
+                continue;
+            }
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                totalWeight -= entry.getValue().weight;
+                evictions.increment();
+            }
+        }
+    }
+
+    private void remove(Long userId) {
+        Snapshot removed = entries.remove(userId);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    private static final class Snapshot {
+        private final List<TaskResponse> tasks;
+        private final long weight;
+        // Sin cerrojo: basta un orden aproximado para elegir a quién descartar
+        private volatile long lastAccess = System.nanoTime();
+
+        private Snapshot(List<TaskResponse> tasks) {
+            this.tasks = tasks;
+            this.weight = weigh(tasks);
+        }
+
+        // Estimación: cabecera del objeto y sus campos más los caracteres de los textos
+        private static long weigh(List<TaskResponse> tasks) {
+            long weight = 64;
+            for (TaskResponse task : tasks) {
+                weight += 200 + 2L * (length(task.getTitle()) + length(task.getDescription()) + length(task.getUsername()));
+                if (task.getTags() != null) {
+                    for (String tag : task.getTags()) {
+                        weight += 48 + 2L * tag.length();
+                    }
+                }
+            }
+            return weight;
+        }
+
+        private static int length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.entity.RevokedToken;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revocación de tokens sin consultar la base de datos en cada petición. Los revocados se
+// guardan en revoked_tokens y en memoria en un conjunto exacto precedido de un filtro de
+// Bloom: un token no revocado (casi todos) se descarta con unas pocas lecturas de bits.
+// Los demás nodos se enteran por el bus de invalidación; al arrancar se recarga la tabla y
+// después se leen periódicamente las filas nuevas, por si un mensaje del bus se perdió.
+@Service
+public class TokenRevocationService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final InvalidationBus invalidationBus;
+    // tokenId -> expiración en milisegundos
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloomFilter;
+    private int bloomCapacity;
+    private volatile boolean running;
+    // Inicio de la última lectura de la tabla; la siguiente pide lo revocado desde ahí
+    private volatile LocalDateTime syncedFrom;
+
+    @Value("${application.security.revocation.expected-tokens:100000}")
+    private int expectedTokens;
+
+    @Value("${application.security.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    // Margen hacia atrás en cada lectura: revoked_at se fija antes del commit y en otro nodo
+    @Value("${application.security.revocation.sync-overlap-ms:60000}")
+    private long syncOverlapMillis;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, InvalidationBus invalidationBus) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(InvalidationBus.REVOKED_TOKENS, new InvalidationBus.Listener() {
+            @Override
+            public void invalidate(String key) {
+                int separator = key.lastIndexOf('|');
+                add(key.substring(0, separator), Long.parseLong(key.substring(separator + 1)));
+            }
+
+            @Override
+            public void invalidateAll() {
+                reload();
+            }
+        });
+    }
+
+    // Antes de que el nodo acepte tráfico, para no dejar pasar un token ya revocado, y con el
+    // bus ya escuchando para no perder lo revocado durante la carga
+    @Override
+    public void start() {
+        reload();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return InvalidationBus.PHASE + 1;
+    }
+
+    public boolean isRevoked(Claims claims, String token, User user) {
+        // Cerrar sesión en todos los dispositivos: iat tiene precisión de segundos
+        if (user.getTokensValidAfter() != null && claims.getIssuedAt() != null
+                && claims.getIssuedAt().before(toDate(user.getTokensValidAfter()))) {
+            return true;
+        }
+        String tokenId = tokenId(claims, token);
+        return bloomFilter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    @Transactional
+    public void revoke(Claims claims, String token, Long userId) {
+        String tokenId = tokenId(claims, token);
+        long expiresAt = claims.getExpiration().getTime();
+        if (expiresAt <= System.currentTimeMillis() || revokedTokenRepository.existsById(tokenId)) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, userId, toLocalDateTime(expiresAt), LocalDateTime.now()));
+        invalidationBus.publish(InvalidationBus.REVOKED_TOKENS, tokenId + "|" + expiresAt);
+    }
+
+    // Redondeado al segundo siguiente porque iat se trunca al segundo
+    public static LocalDateTime revokeAllBefore() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+    }
+
+    public int getRevokedCount() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.revocation.prune-interval-ms:300000}")
+    @Transactional
+    public void prune() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            if (revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+                rebuildBloomFilter();
+            }
+        }
+        revokedTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        if (!running) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = syncedFrom.minusNanos(syncOverlapMillis * 1_000_000L);
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, startedAt)) {
+            add(token.getTokenId(), toEpochMillis(token.getExpiresAt()));
+        }
+        syncedFrom = startedAt;
+    }
+
+    private void reload() {
+        synchronized (writeLock) {
+            syncedFrom = LocalDateTime.now();
+            revoked.clear();
+            for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+                revoked.put(token.getTokenId(), toEpochMillis(token.getExpiresAt()));
+            }
+            rebuildBloomFilter();
+        }
+        logger.info("Token revocation list loaded with {} entries", revoked.size());
+    }
+
+    // Exacto primero y filtro después: una lectura concurrente nunca ve el filtro sin el token
+    // y encontrarlo luego ausente del conjunto. Todo bajo el mismo bloqueo que la reconstrucción.
+    private void add(String tokenId, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (writeLock) {
+            revoked.put(tokenId, expiresAt);
+            if (revoked.size() > bloomCapacity) {
+                rebuildBloomFilter();
+            } else {
+                bloomFilter.put(tokenId);
+            }
+        }
+    }
+
+    private void rebuildBloomFilter() {
+        bloomCapacity = Math.max(expectedTokens, revoked.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(bloomCapacity, falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+    }
+
+    // Los tokens anteriores al jti se identifican por su hash
+    private static String tokenId(Claims claims, String token) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(new Date(epochMillis).toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,227 @@
+package com.gestion.backend.repository;
+
+import com.gestion.backend.dto.TaskQueryRequest;
+import com.gestion.backend.dto.TaskQueryRequest.SortOrder;
+import com.gestion.backend.entity.Task;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import com.gestion.backend.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Cada combinación de criterios de /api/tasks/query (con y sin cursor, en los cuatro órdenes)
+// debe resolverse con una sola sentencia SQL y devolver lo mismo que filtrar en memoria.
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:taskquery;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TaskQueryStatementCountTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final int TASKS = 60;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private List<Task> tasks;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("query-user");
+        user.setEmail("query-user@example.com");
+        user.setPassword("not-used");
+        user = userRepository.save(user);
+
+        // Otro usuario con tareas que nunca deben aparecer
+        User other = new User();
+        other.setUsername("query-other");
+        other.setEmail("query-other@example.com");
+        other.setPassword("not-used");
+        other = userRepository.save(other);
+
+        tasks = new ArrayList<>();
+        TaskStatus[] statuses = TaskStatus.values();
+        TaskPriority[] priorities = TaskPriority.values();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTitle((i % 5 == 0 ? "Monthly Report " : "Task ") + i);
+            task.setDescription(i % 3 == 0 ? null : (i % 4 == 0 ? "quarterly report draft" : "routine work"));
+            task.setStatus(statuses[i % statuses.length]);
+            task.setPriority(priorities[(i / 2) % priorities.length]);
+            // Pares de tareas con la misma fecha de creación para probar el desempate por id
+            task.setCreatedAt(BASE.plusHours(i / 2));
+            task.setDueDate(i % 7 == 0 ? null : BASE.plusDays(i % 11));
+            task.setUser(user);
+            tasks.add(taskRepository.save(task));
+
+            Task foreign = new Task();
+            foreign.setTitle("Monthly Report of someone else " + i);
+            foreign.setStatus(task.getStatus());
+            foreign.setPriority(task.getPriority());
+            foreign.setCreatedAt(task.getCreatedAt());
+            foreign.setDueDate(task.getDueDate());
+            foreign.setUser(other);
+            taskRepository.save(foreign);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void everyCombinationRunsOneStatement() {
+        for (SortOrder sort : SortOrder.values()) {
+            for (int mask = 0; mask < 64; mask++) {
+                TaskQueryRequest query = query(mask, sort);
+                List<Task> expected = reference(query, null);
+                TaskSpecifications.Cursor after = null;
+                if ((mask & 32) != 0) {
+                    if (expected.size() < 3) {
+                        continue;
+                    }
+                    after = TaskSpecifications.cursorAfter(expected.get(2), query);
+                    expected = reference(query, expected.get(2));
+                }
+
+                Statistics statistics = statistics();
+                List<Task> result = taskRepository.findBy(TaskSpecifications.matching(user.getId(), query, after),
+                    q -> q.sortBy(TaskSpecifications.sort(query)).limit(TASKS).all());
+
+                String label = sort + " mask=" + mask;
+                assertEquals(1, statistics.getPrepareStatementCount(), label);
+                assertEquals(ids(expected), ids(result), label);
+            }
+        }
+    }
+
+    @Test
+    void keysetPagesCoverEveryTaskOnceWithOneStatementEach() {
+        for (SortOrder sort : SortOrder.values()) {
+            TaskQueryRequest query = new TaskQueryRequest();
+            query.setSort(sort);
+            List<Task> expected = reference(query, null);
+
+            List<Long> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                TaskSpecifications.Cursor after = cursor != null ? TaskSpecifications.Cursor.decode(cursor) : null;
+                Statistics statistics = statistics();
+                List<Task> page = taskRepository.findBy(TaskSpecifications.matching(user.getId(), query, after),
+                    q -> q.sortBy(TaskSpecifications.sort(query)).limit(8).all());
+                assertEquals(1, statistics.getPrepareStatementCount(), sort.toString());
+                page.forEach(task -> seen.add(task.getId()));
+                cursor = page.size() == 8 ? TaskSpecifications.cursorAfter(page.get(7), query).encode() : null;
+            } while (cursor != null);
+
+            assertEquals(ids(expected), seen, sort.toString());
+        }
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        TaskSpecifications.Cursor cursor = new TaskSpecifications.Cursor(BASE.plusSeconds(7), 42L);
+        assertEquals(cursor, TaskSpecifications.Cursor.decode(cursor.encode()));
+    }
+
+    // Bits: 1 estado, 2 prioridad, 4 fecha límite, 8 creación, 16 texto, 32 cursor
+    private TaskQueryRequest query(int mask, SortOrder sort) {
+        TaskQueryRequest query = new TaskQueryRequest();
+        query.setSort(sort);
+        if ((mask & 1) != 0) {
+            query.setStatus(EnumSet.of(TaskStatus.PENDING, TaskStatus.IN_PROGRESS));
+        }
+        if ((mask & 2) != 0) {
+            query.setPriority(EnumSet.of(TaskPriority.HIGH, TaskPriority.URGENT, TaskPriority.LOW));
+        }
+        if ((mask & 4) != 0) {
+            query.setDueFrom(BASE.plusDays(2));
+            query.setDueTo(BASE.plusDays(9));
+        }
+        if ((mask & 8) != 0) {
+            query.setCreatedFrom(BASE.plusHours(3));
+            query.setCreatedTo(BASE.plusHours(25));
+        }
+        if ((mask & 16) != 0) {
+            query.setText("REPORT");
+        }
+        return query;
+    }
+
+    // Mismos criterios aplicados en memoria; afterTask es el último de la página anterior
+    private List<Task> reference(TaskQueryRequest query, Task afterTask) {
+        boolean due = query.getSort() == SortOrder.DUE_ASC || query.getSort() == SortOrder.DUE_DESC;
+        boolean descending = query.getSort() == SortOrder.CREATED_DESC || query.getSort() == SortOrder.DUE_DESC;
+        Function<Task, LocalDateTime> key = due ? Task::getDueDate : Task::getCreatedAt;
+        Comparator<Task> order = Comparator.comparing(key).thenComparing(Task::getId);
+        Comparator<Task> comparator = descending ? order.reversed() : order;
+
+        String text = query.getText() != null ? query.getText().toLowerCase(Locale.ROOT) : null;
+        return tasks.stream()
+            .filter(task -> query.getStatus() == null || query.getStatus().contains(task.getStatus()))
+            .filter(task -> query.getPriority() == null || query.getPriority().contains(task.getPriority()))
+            .filter(task -> within(task.getDueDate(), query.getDueFrom(), query.getDueTo()))
+            .filter(task -> within(task.getCreatedAt(), query.getCreatedFrom(), query.getCreatedTo()))
+            .filter(task -> text == null || task.getTitle().toLowerCase(Locale.ROOT).contains(text)
+                || (task.getDescription() != null && task.getDescription().toLowerCase(Locale.ROOT).contains(text)))
+            .filter(task -> !due || task.getDueDate() != null)
+            .filter(task -> afterTask == null || comparator.compare(task, afterTask) > 0)
+            .sorted(comparator)
+            .collect(Collectors.toList());
+    }
+
+    private static boolean within(LocalDateTime value, LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        return (from == null || !value.isBefore(from)) && (to == null || value.isBefore(to));
+    }
+
+    private Statistics statistics() {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
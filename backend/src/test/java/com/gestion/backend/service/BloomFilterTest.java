@@ -0,0 +1,34 @@
+package com.gestion.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnInsertedValueAndKeepsFalsePositivesNearTarget() {
+        int inserted = 50_000;
+        BloomFilter filter = new BloomFilter(inserted, 0.001);
+        String[] values = new String[inserted];
+        for (int i = 0; i < inserted; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.put(values[i]);
+        }
+        for (String value : values) {
+            assertTrue(filter.mightContain(value));
+        }
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // Margen amplio sobre el 0,1 % objetivo para que la prueba no sea inestable
+        assertTrue(falsePositives < probes * 0.003, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,117 @@
+package com.gestion.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Varios "nodos" en la misma JVM compartiendo la tabla de invalidaciones en H2
+class InvalidationBusTest {
+
+    private DriverManagerDataSource dataSource;
+
+    @BeforeEach
+    void createTable() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:invalidation" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE cache_invalidations (" +
+            "id BIGINT AUTO_INCREMENT PRIMARY KEY, region VARCHAR(64) NOT NULL, cache_key VARCHAR(191), " +
+            "origin_node VARCHAR(64) NOT NULL, created_at TIMESTAMP NOT NULL)");
+    }
+
+    @Test
+    void invalidationReachesOtherNodesOnlyOnce() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        Node c = new Node("c");
+
+        a.bus.publish(InvalidationBus.USERS, "42");
+        a.transport.poll();
+        b.transport.poll();
+        c.transport.poll();
+        b.transport.poll();
+
+        // El nodo de origen la aplica al publicar y descarta su propio mensaje al sondear
+        assertEquals(List.of("42"), a.invalidated);
+        assertEquals(List.of("42"), b.invalidated);
+        assertEquals(List.of("42"), c.invalidated);
+    }
+
+    @Test
+    void nodeStartedLaterIgnoresOlderInvalidations() {
+        Node a = new Node("a");
+        a.bus.publish(InvalidationBus.USERS, "1");
+
+        Node late = new Node("late");
+        a.bus.publish(InvalidationBus.USERS, "2");
+        late.transport.poll();
+
+        assertEquals(List.of("2"), late.invalidated);
+    }
+
+    @Test
+    void missingIdIsPickedUpWhenItAppears() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        // Simula un INSERT con id 1 que confirma después que el de id 2
+        jdbc.update("INSERT INTO cache_invalidations (id, region, cache_key, origin_node, created_at) " +
+            "VALUES (2, 'users', 'late-2', 'x', CURRENT_TIMESTAMP)");
+        b.transport.poll();
+        jdbc.update("INSERT INTO cache_invalidations (id, region, cache_key, origin_node, created_at) " +
+            "VALUES (1, 'users', 'late-1', 'x', CURRENT_TIMESTAMP)");
+        b.transport.poll();
+        b.transport.poll();
+
+        assertEquals(List.of("late-2", "late-1"), b.invalidated);
+        assertTrue(a.invalidated.isEmpty());
+    }
+
+    @Test
+    void invalidationIsWrittenOnlyWhenTheWriteCommits() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transaction.executeWithoutResult(status -> {
+            a.bus.publish(InvalidationBus.USERS, "rolled-back");
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status -> a.bus.publish(InvalidationBus.USERS, "committed"));
+        b.transport.poll();
+
+        assertEquals(List.of("committed"), a.invalidated);
+        assertEquals(List.of("committed"), b.invalidated);
+    }
+
+    private class Node {
+
+        final JdbcInvalidationTransport transport = new JdbcInvalidationTransport(dataSource, 100, 60_000, 30_000);
+        final InvalidationBus bus;
+        final List<String> invalidated = new CopyOnWriteArrayList<>();
+
+        Node(String id) {
+            bus = new InvalidationBus(transport, id);
+            bus.subscribe(InvalidationBus.USERS, new InvalidationBus.Listener() {
+                @Override
+                public void invalidate(String key) {
+                    invalidated.add(key);
+                }
+
+                @Override
+                public void invalidateAll() {
+                    invalidated.add("*");
+                }
+            });
+            bus.start();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.InventoryItemRequest;
+import com.gestion.backend.dto.InventoryItemResponse;
+import com.gestion.backend.dto.ReservationRequest;
+import com.gestion.backend.dto.ReservationResponse;
+import com.gestion.backend.entity.User;
+import com.gestion.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Benchmark de contención: N hilos ajustando (o reservando) el stock del mismo SKU.
+// Hilos y operaciones se pueden cambiar con -Dinventory.bench.threads / -Dinventory.bench.ops
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:inventorybench;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({InventoryService.class, InventoryLedgerWriter.class, InventoryFacetCache.class,
+         InventoryReservationService.class, InventoryReservationSweeper.class, ShardRouter.class,
+         InvalidationBus.class, JdbcInvalidationTransport.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryConcurrencyBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryConcurrencyBenchmarkTest.class);
+
+    private static final int THREADS = Integer.getInteger("inventory.bench.threads", 16);
+    private static final int OPS_PER_THREAD = Integer.getInteger("inventory.bench.ops", 200);
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryReservationService reservationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentIncrementsDoNotLoseUpdates() throws Exception {
+        InventoryItemResponse item = createItem("HOT-INC", 0);
+
+        long elapsed = hammer(() -> inventoryService.adjustStock(item.getId(), 1), new AtomicInteger());
+
+        int expected = THREADS * OPS_PER_THREAD;
+        assertEquals(expected, inventoryService.getItemById(item.getId()).getQuantity());
+        report("increments", expected, elapsed);
+    }
+
+    @Test
+    void concurrentDecrementsNeverOversell() throws Exception {
+        int initialStock = THREADS * OPS_PER_THREAD / 2;
+        InventoryItemResponse item = createItem("HOT-DEC", initialStock);
+        AtomicInteger rejected = new AtomicInteger();
+
+        long elapsed = hammer(() -> inventoryService.adjustStock(item.getId(), -1), rejected);
+
+        int attempts = THREADS * OPS_PER_THREAD;
+        assertEquals(0, inventoryService.getItemById(item.getId()).getQuantity());
+        assertEquals(attempts - initialStock, rejected.get());
+        report("decrements", attempts, elapsed);
+    }
+
+    @Test
+    void concurrentReserveConfirmCancelKeepsStockConsistent() throws Exception {
+        int initialStock = THREADS * OPS_PER_THREAD / 4;
+        InventoryItemResponse item = createItem("HOT-RES", initialStock);
+        String username = createUser("bench-reservations").getUsername();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger confirmed = new AtomicInteger();
+
+        long elapsed = hammer(() -> {
+            ReservationRequest request = new ReservationRequest(1, null, 60L);
+            ReservationResponse reservation = reservationService.reserve(item.getId(), request, username);
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                reservationService.confirm(reservation.getId(), username);
+                confirmed.incrementAndGet();
+            } else {
+                reservationService.cancel(reservation.getId(), username);
+            }
+        }, rejected);
+
+        InventoryItemResponse result = inventoryService.getItemById(item.getId());
+        assertEquals(0, result.getReserved());
+        assertEquals(initialStock - confirmed.get(), result.getQuantity());
+        assertTrue(result.getQuantity() >= 0);
+        report("reserve/confirm/cancel", THREADS * OPS_PER_THREAD, elapsed);
+    }
+
+    private InventoryItemResponse createItem(String sku, int quantity) {
+        InventoryItemRequest request = new InventoryItemRequest();
+        request.setSku(sku);
+        request.setName("Item " + sku);
+        request.setCategory("Benchmark");
+        request.setQuantity(quantity);
+        request.setPrice(BigDecimal.ONE);
+        return inventoryService.createItem(request);
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("not-used");
+        return userRepository.save(user);
+    }
+
+    private long hammer(Runnable operation, AtomicInteger rejected) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    try {
+                        operation.run();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private void report(String label, int operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        logger.info("{}: {} threads x {} ops in {} s ({} ops/s)",
+            label, THREADS, OPS_PER_THREAD, String.format("%.3f", seconds), String.format("%.0f", operations / seconds));
+    }
+}
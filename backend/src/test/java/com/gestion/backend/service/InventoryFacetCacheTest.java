@@ -0,0 +1,127 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.CategoryFacet;
+import com.gestion.backend.repository.InventoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// El GROUP BY es un mock cuyo resultado fija cada test; las transacciones son reales sobre H2
+class InventoryFacetCacheTest {
+
+    private final InventoryItemRepository repository = mock(InventoryItemRepository.class);
+    private final AtomicLong tools = new AtomicLong();
+    private DataSourceTransactionManager transactionManager;
+    private InventoryFacetCache cache;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = new DataSourceTransactionManager(new DriverManagerDataSource(
+            "jdbc:h2:mem:facets" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        when(repository.countByCategory()).thenAnswer(invocation -> rows());
+        cache = new InventoryFacetCache(repository, new InvalidationBus(new LocalInvalidationTransport(), "facets-test"),
+            transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void committedChangeIsAppliedWithoutQueryingAgain() {
+        tools.set(1);
+        cache.load();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> cache.onCreated("tools"));
+
+        assertEquals(2, count("tools"));
+        verify(repository, times(1)).countByCategory();
+    }
+
+    @Test
+    void rolledBackChangeIsNotApplied() {
+        tools.set(1);
+        cache.load();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cache.onCreated("tools");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, count("tools"));
+    }
+
+    @Test
+    void changeCommittedBeforeTheQueryButAppliedAfterItIsNotCountedTwice() {
+        // El cambio se registra en su transacción y confirma: el GROUP BY ya lo ve...
+        TransactionSynchronizationManager.initSynchronization();
+        cache.onCreated("tools");
+        tools.set(1);
+
+        // ...pero su afterCompletion todavía no ha corrido cuando otro hilo reconstruye
+        assertEquals(1, CompletableFuture.supplyAsync(() -> count("tools")).join());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(1, count("tools"));
+    }
+
+    @Test
+    void concurrentReadersAfterAnInvalidationShareOneQuery() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        tools.set(3);
+        when(repository.countByCategory()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return rows();
+        });
+
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> count("tools"));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> count("tools"));
+        SingleFlight<?> rebuilds = (SingleFlight<?>) ReflectionTestUtils.getField(cache, "rebuilds");
+        while (rebuilds.getCoalesced() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals(3, first.join());
+        assertEquals(3, second.join());
+        verify(repository, times(1)).countByCategory();
+    }
+
+    private List<Object[]> rows() {
+        return List.<Object[]>of(new Object[]{"tools", tools.get()});
+    }
+
+    private long count(String category) {
+        return cache.getFacets().stream()
+            .filter(facet -> category.equals(facet.getCategory()))
+            .mapToLong(CategoryFacet::getCount)
+            .sum();
+    }
+}
@@ -0,0 +1,75 @@
+package com.gestion.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Coste por petición del limitador: un usuario que nunca llega al límite, uno que siempre
+// está por encima y muchos usuarios distintos desde varios hilos. Se ejecuta con
+// scripts/rate-limit-benchmark.sh (no es un test de surefire).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Limiters {
+        RateLimiter unlimited;
+        RateLimiter exhausted;
+        String[] users;
+
+        @Setup
+        public void setUp() {
+            unlimited = new RateLimiter(true, 100_000, 1_000_000, 1e9, 1_000_000, 1e9, 1_000_000, 1e9);
+            exhausted = new RateLimiter(true, 100_000, 1, 0.001, 1, 0.001, 1, 0.001);
+            exhausted.tryAcquire(RateLimiter.Group.READ, "u:hot");
+            users = new String[10_000];
+            for (int i = 0; i < users.length; i++) {
+                users[i] = "u:user" + i;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public long allowedSingleUser(Limiters limiters) {
+        return limiters.unlimited.tryAcquire(RateLimiter.Group.READ, "u:alice");
+    }
+
+    @Benchmark
+    public long rejectedSingleUser(Limiters limiters) {
+        return limiters.exhausted.tryAcquire(RateLimiter.Group.READ, "u:hot");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long allowedManyUsersContended(Limiters limiters, Cursor cursor) {
+        String user = limiters.users[cursor.next++ % limiters.users.length];
+        return limiters.unlimited.tryAcquire(RateLimiter.Group.WRITE, user);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RateLimiterBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
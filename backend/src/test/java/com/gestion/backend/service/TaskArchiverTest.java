@@ -0,0 +1,74 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.config.ShardDataSources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Archivado sobre H2 con las tablas mínimas: qué filas terminadas salen de tasks
+class TaskArchiverTest {
+
+    private static final String COLUMNS = "id BIGINT PRIMARY KEY, title VARCHAR(255) NOT NULL, description TEXT, " +
+        "status VARCHAR(20) NOT NULL, priority VARCHAR(20) NOT NULL, due_date TIMESTAMP, created_at TIMESTAMP NOT NULL, " +
+        "updated_at TIMESTAMP, completed_at TIMESTAMP, recurrence VARCHAR(20), recurrence_interval INT, " +
+        "recurrence_until TIMESTAMP, series_id BIGINT, occurrence_date TIMESTAMP, tags VARCHAR(1000), " +
+        "version BIGINT NOT NULL, user_id BIGINT NOT NULL";
+
+    private JdbcTemplate jdbc;
+    private TaskArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:archiver" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE tasks (" + COLUMNS + ")");
+        jdbc.execute("CREATE TABLE archived_tasks (" + COLUMNS + ", archived_at TIMESTAMP NOT NULL)");
+
+        ShardRouter shardRouter = new ShardRouter(new DefaultListableBeanFactory().getBeanProvider(ShardDataSources.class),
+            new DataSourceTransactionManager(dataSource), "primary", "", 64);
+        archiver = new TaskArchiver(new NamedParameterJdbcTemplate(dataSource), shardRouter,
+            new InvalidationBus(new LocalInvalidationTransport(), "archiver-test"));
+        ReflectionTestUtils.setField(archiver, "enabled", true);
+        ReflectionTestUtils.setField(archiver, "ageDays", 30L);
+        ReflectionTestUtils.setField(archiver, "batchSize", 100);
+        ReflectionTestUtils.setField(archiver, "maxBatchesPerRun", 10);
+    }
+
+    @Test
+    void futureOccurrenceRowsStayUntilTheirDatePasses() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime old = now.minusDays(60);
+        insert(1, "COMPLETED", old, null, null);
+        // Serie anual y una ocurrencia cancelada del año que viene para saltarla
+        insert(2, "PENDING", old, null, null);
+        insert(3, "CANCELLED", old, 2L, now.plusYears(1));
+        // Ocurrencia ya pasada: se archiva como cualquier otra terminada
+        insert(4, "COMPLETED", old, 2L, now.minusDays(45));
+        // Terminada hace poco: todavía no
+        insert(5, "COMPLETED", now.minusDays(1), null, null);
+
+        archiver.archive();
+
+        assertEquals(List.of(1L, 4L), jdbc.queryForList("SELECT id FROM archived_tasks ORDER BY id", Long.class));
+        assertEquals(List.of(2L, 3L, 5L), jdbc.queryForList("SELECT id FROM tasks ORDER BY id", Long.class));
+    }
+
+    private void insert(long id, String status, LocalDateTime updatedAt, Long seriesId, LocalDateTime occurrenceDate) {
+        jdbc.update("INSERT INTO tasks (id, title, status, priority, created_at, updated_at, series_id, occurrence_date, " +
+                "version, user_id) VALUES (?, ?, ?, 'MEDIUM', ?, ?, ?, ?, 0, 7)",
+            id, "Task " + id, status, Timestamp.valueOf(updatedAt), Timestamp.valueOf(updatedAt), seriesId,
+            occurrenceDate != null ? Timestamp.valueOf(occurrenceDate) : null);
+    }
+}
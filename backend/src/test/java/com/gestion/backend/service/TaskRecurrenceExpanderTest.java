@@ -0,0 +1,158 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.entity.Task.TaskRecurrence;
+import com.gestion.backend.entity.Task.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Fechas relativas a hoy: la expansión nunca empieza antes de archive-age-days atrás
+class TaskRecurrenceExpanderTest {
+
+    private final LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).plusDays(1).plusHours(9);
+    private TaskRecurrenceExpander expander;
+
+    @BeforeEach
+    void setUp() {
+        expander = new TaskRecurrenceExpander();
+        ReflectionTestUtils.setField(expander, "maxPerSeries", 100);
+        ReflectionTestUtils.setField(expander, "maxOccurrences", 1000);
+        ReflectionTestUtils.setField(expander, "maxWindowDays", 366L);
+        ReflectionTestUtils.setField(expander, "listWindowDays", 30L);
+        ReflectionTestUtils.setField(expander, "overdueLookbackDays", 14L);
+        ReflectionTestUtils.setField(expander, "archiveAgeDays", 30L);
+    }
+
+    @Test
+    void monthlySeriesOnThe31stLandsOnMonthEndWithoutDrifting() {
+        int year = base.getYear() + 1;
+        TaskResponse series = series(1L, TaskRecurrence.MONTHLY, 1, LocalDateTime.of(year, 1, 31, 9, 0));
+
+        List<LocalDateTime> dates = dates(expander.expand(List.of(series),
+            LocalDateTime.of(year, 1, 1, 0, 0), LocalDateTime.of(year, 6, 1, 0, 0)));
+
+        assertEquals(List.of(
+            LocalDateTime.of(year, 1, 31, 9, 0),
+            YearMonth.of(year, 2).atEndOfMonth().atTime(9, 0),
+            // Desde la primera y no desde la anterior: febrero no arrastra su día a marzo
+            LocalDateTime.of(year, 3, 31, 9, 0),
+            LocalDateTime.of(year, 4, 30, 9, 0),
+            LocalDateTime.of(year, 5, 31, 9, 0)), dates);
+    }
+
+    @Test
+    void intervalSkipsStraightToTheFirstOccurrenceInTheWindow() {
+        TaskResponse series = series(1L, TaskRecurrence.WEEKLY, 2, base);
+
+        List<LocalDateTime> dates = dates(expander.expand(List.of(series), base.plusDays(15), base.plusDays(60)));
+
+        assertEquals(List.of(base.plusDays(28), base.plusDays(42), base.plusDays(56)), dates);
+        assertTrue(expander.isOccurrence(series, base.plusDays(14)));
+        assertFalse(expander.isOccurrence(series, base.plusDays(7)));
+    }
+
+    @Test
+    void untilIsInclusiveAndEndsTheSeries() {
+        TaskResponse series = series(1L, TaskRecurrence.DAILY, 1, base);
+        series.setRecurrenceUntil(base.plusDays(3));
+
+        List<LocalDateTime> dates = dates(expander.expand(List.of(series), base, base.plusDays(30)));
+
+        assertEquals(List.of(base, base.plusDays(1), base.plusDays(2), base.plusDays(3)), dates);
+        assertFalse(expander.isOccurrence(series, base.plusDays(4)));
+    }
+
+    @Test
+    void datesWithARowAreSkippedAndComeBackWithoutIt() {
+        TaskResponse series = series(1L, TaskRecurrence.DAILY, 1, base);
+        TaskResponse cancelled = occurrence(2L, 1L, base.plusDays(1), TaskStatus.CANCELLED);
+        TaskResponse completed = occurrence(3L, 1L, base.plusDays(2), TaskStatus.COMPLETED);
+
+        assertEquals(List.of(base, base.plusDays(3)),
+            dates(expander.expand(List.of(series, cancelled, completed), base, base.plusDays(4))));
+        // Sin la fila (borrada o archivada) la ocurrencia vuelve a calcularse como pendiente:
+        // por eso TaskService la cancela en vez de borrarla y TaskArchiver no mueve las futuras
+        List<TaskResponse> withoutRows = expander.expand(List.of(series), base, base.plusDays(4));
+        assertEquals(List.of(base, base.plusDays(1), base.plusDays(2), base.plusDays(3)), dates(withoutRows));
+        assertTrue(withoutRows.stream().allMatch(task -> task.getStatus() == TaskStatus.PENDING && task.isVirtual()));
+    }
+
+    @Test
+    void nothingIsExpandedBeforeTheArchiveAge() {
+        TaskResponse series = series(1L, TaskRecurrence.DAILY, 1, base.minusDays(90));
+
+        List<LocalDateTime> dates = dates(expander.expand(List.of(series), base.minusDays(90), base));
+
+        assertFalse(dates.isEmpty());
+        assertFalse(dates.get(0).isBefore(LocalDateTime.now().minusDays(31)));
+    }
+
+    @Test
+    void listLeavesOutTheFirstOccurrenceBecauseTheSeriesRowIsThere() {
+        TaskResponse series = series(1L, TaskRecurrence.DAILY, 1, base);
+
+        assertEquals(List.of(base.plusDays(1), base.plusDays(2)),
+            dates(expander.expandForList(List.of(series), base.minusDays(1), base.plusDays(3))));
+        // Próximas y vencidas no traen la fila de la serie: ahí sí cuenta la primera
+        assertEquals(List.of(base, base.plusDays(1), base.plusDays(2)),
+            dates(expander.expand(List.of(series), base.minusDays(1), base.plusDays(3))));
+    }
+
+    @Test
+    void capsApplyPerSeriesAndPerRequest() {
+        TaskResponse daily = series(1L, TaskRecurrence.DAILY, 1, base);
+        TaskResponse other = series(2L, TaskRecurrence.DAILY, 1, base);
+        ReflectionTestUtils.setField(expander, "maxPerSeries", 5);
+
+        assertEquals(5, expander.expand(List.of(daily), base, base.plusDays(30)).size());
+
+        ReflectionTestUtils.setField(expander, "maxOccurrences", 7);
+        assertEquals(7, expander.expand(List.of(daily, other), base, base.plusDays(30)).size());
+    }
+
+    @Test
+    void finishedSeriesStopExpanding() {
+        TaskResponse completed = series(1L, TaskRecurrence.DAILY, 1, base);
+        completed.setStatus(TaskStatus.COMPLETED);
+        TaskResponse cancelled = series(2L, TaskRecurrence.WEEKLY, 1, base);
+        cancelled.setStatus(TaskStatus.CANCELLED);
+
+        assertTrue(expander.expand(List.of(completed, cancelled), base, base.plusDays(30)).isEmpty());
+    }
+
+    private static TaskResponse series(Long id, TaskRecurrence recurrence, int interval, LocalDateTime dueDate) {
+        TaskResponse task = new TaskResponse();
+        task.setId(id);
+        task.setTitle("Series " + id);
+        task.setStatus(TaskStatus.PENDING);
+        task.setDueDate(dueDate);
+        task.setRecurrence(recurrence);
+        task.setRecurrenceInterval(interval);
+        return task;
+    }
+
+    private static TaskResponse occurrence(Long id, Long seriesId, LocalDateTime date, TaskStatus status) {
+        TaskResponse task = new TaskResponse();
+        task.setId(id);
+        task.setTitle("Occurrence " + id);
+        task.setStatus(status);
+        task.setDueDate(date);
+        task.setSeriesId(seriesId);
+        task.setOccurrenceDate(date);
+        return task;
+    }
+
+    private static List<LocalDateTime> dates(List<TaskResponse> occurrences) {
+        return occurrences.stream().map(TaskResponse::getDueDate).toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.config.ShardDataSources;
+import com.gestion.backend.dto.TaskResponse;
+import com.gestion.backend.entity.Task.TaskPriority;
+import com.gestion.backend.entity.Task.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Sin transacción activa los afterCommit corren al momento: cada onX es un commit ya confirmado
+class TaskTagIndexTest {
+
+    private JdbcTemplate jdbc;
+    private TaskTagIndex index;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:tags" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE tasks (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, version BIGINT, " +
+            "status VARCHAR(20) NOT NULL, priority VARCHAR(20) NOT NULL, tags VARCHAR(1000))");
+
+        ShardRouter shardRouter = new ShardRouter(new DefaultListableBeanFactory().getBeanProvider(ShardDataSources.class),
+            new DataSourceTransactionManager(dataSource), "primary", "", 64);
+        index = new TaskTagIndex(new NamedParameterJdbcTemplate(dataSource), shardRouter,
+            new InvalidationBus(new LocalInvalidationTransport(), "tags-test"));
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "maxUsers", 2);
+        ReflectionTestUtils.setField(index, "batchUsers", 500);
+    }
+
+    @Test
+    void indexBuiltBeforeACommitOfTheSameUserIsNotKept() {
+        long generation = index.generation();
+        index.onUpdated(task(1L, 10L, 2L, "work"));
+
+        index.tagCounts(1L, generation, loader(task(1L, 10L, 1L, "home")));
+        Map<String, Integer> counts = index.tagCounts(1L, index.generation(), loader(task(1L, 10L, 2L, "work")));
+
+        assertEquals(2, loads.get());
+        assertEquals(Map.of("work", 1), counts);
+    }
+
+    @Test
+    void commitOfAnotherUserDoesNotDiscardTheIndex() {
+        long generation = index.generation();
+        index.onCreated(task(2L, 20L, 0L, "other"));
+        index.onDeleted(3L, 30L);
+
+        index.tagCounts(1L, generation, loader(task(1L, 10L, 1L, "home")));
+        index.tagCounts(1L, index.generation(), loader(task(1L, 10L, 1L, "home")));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void lazyIndexesKeepAtMostMaxUsers() {
+        for (long userId = 1; userId <= 3; userId++) {
+            index.tagCounts(userId, index.generation(), loader(task(userId, userId * 10, 0L, "home")));
+        }
+
+        assertEquals(2, index.getSize());
+        // El menos usado fue el primero
+        index.tagCounts(1L, index.generation(), loader(task(1L, 10L, 0L, "home")));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void rebuildStopsAtMaxUsersAndKeepsIndexesAlreadyBuilt() {
+        for (long userId = 1; userId <= 3; userId++) {
+            jdbc.update("INSERT INTO tasks VALUES (?, ?, 0, 'PENDING', 'MEDIUM', 'db')", userId * 10, userId);
+        }
+        index.tagCounts(2L, index.generation(), loader(task(2L, 20L, 0L, "loaded")));
+
+        index.rebuild();
+
+        assertEquals(2, index.getSize());
+        assertEquals(Map.of("loaded", 1), index.tagCounts(2L, index.generation(), loader()));
+        assertEquals(1, loads.get());
+    }
+
+    private Supplier<List<TaskResponse>> loader(TaskResponse... tasks) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(tasks);
+        };
+    }
+
+    private static TaskResponse task(Long userId, Long id, Long version, String tag) {
+        TaskResponse task = new TaskResponse();
+        task.setId(id);
+        task.setUserId(userId);
+        task.setVersion(version);
+        task.setStatus(TaskStatus.PENDING);
+        task.setPriority(TaskPriority.MEDIUM);
+        task.setTags(Set.of(tag));
+        return task;
+    }
+}
@@ -0,0 +1,115 @@
+package com.gestion.backend.service;
+
+import com.gestion.backend.dto.TaskResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Sin transacción activa los afterCommit corren al momento: cada onX es un commit ya confirmado
+class TaskWorkingSetCacheTest {
+
+    private TaskWorkingSetCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TaskWorkingSetCache(new InvalidationBus(new LocalInvalidationTransport(), "cache-test"),
+            new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxWeight", 1200L);
+    }
+
+    @Test
+    void loadStartedBeforeACommitOfTheSameUserIsNotStored() {
+        long generation = cache.generation();
+        // Confirmada mientras la carga leía: su resultado podría no incluirla
+        cache.onUpdated(task(1L, 10L, 2L));
+
+        cache.put(1L, List.of(task(1L, 10L, 1L)), generation);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void commitOfAnotherUserDoesNotDiscardTheLoad() {
+        long generation = cache.generation();
+        cache.onCreated(task(2L, 20L, 0L));
+        cache.onDeleted(3L, 30L);
+
+        cache.put(1L, List.of(task(1L, 10L, 1L)), generation);
+
+        assertNotNull(cache.get(1L));
+    }
+
+    @Test
+    void loadStartedAfterTheCommitIsStoredAndKeptUpToDate() {
+        cache.onUpdated(task(1L, 10L, 2L));
+        cache.put(1L, List.of(task(1L, 10L, 2L)), cache.generation());
+
+        cache.onUpdated(task(1L, 10L, 3L));
+
+        assertEquals(3L, cache.get(1L).get(0).getVersion());
+    }
+
+    @Test
+    void afterCommitsArrivingOutOfOrderKeepTheNewestVersion() {
+        cache.put(1L, List.of(task(1L, 10L, 1L)), cache.generation());
+
+        cache.onUpdated(task(1L, 10L, 3L));
+        cache.onUpdated(task(1L, 10L, 2L));
+
+        assertEquals(3L, cache.get(1L).get(0).getVersion());
+    }
+
+    @Test
+    void updateOfATaskThatIsNotCachedDropsTheUser() {
+        cache.put(1L, List.of(task(1L, 10L, 1L)), cache.generation());
+
+        cache.onUpdated(task(1L, 11L, 1L));
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void createdTaskAlreadyLoadedIsNotAddedTwice() {
+        long generation = cache.generation();
+        cache.put(1L, List.of(task(1L, 10L, 0L)), generation);
+
+        cache.onCreated(task(1L, 10L, 0L));
+
+        assertEquals(1, cache.get(1L).size());
+    }
+
+    @Test
+    void overTheLimitTheLeastRecentlyReadAreEvicted() {
+        for (long userId = 1; userId <= 4; userId++) {
+            cache.put(userId, List.of(task(userId, userId * 10, 0L)), cache.generation());
+        }
+        cache.get(1L);
+
+        cache.put(5L, List.of(task(5L, 50L, 0L)), cache.generation());
+
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(5L));
+        assertEquals(cache.getSize() * 278L, cache.getWeight());
+    }
+
+    // Peso estimado 278: 64 de la lista y 200 + 2 * (6 + 1) de la tarea
+    private static TaskResponse task(Long userId, Long id, Long version) {
+        TaskResponse task = new TaskResponse();
+        task.setId(id);
+        task.setUserId(userId);
+        task.setUsername("u");
+        task.setTitle("Task " + (id % 10));
+        task.setVersion(version);
+        return task;
+    }
+}
@@ -96,7 +96,7 @@ const TaskManagement = () => {
 
   const handleSaveTask = async (data: TaskRequest | TaskUpdateRequest) => {
     if (editingTask) {
-      return await updateTask(editingTask.id, data as TaskUpdateRequest);
+      return await updateTask(editingTask.id, data as TaskUpdateRequest, editingTask.version);
     } else {
       return await createTask(data as TaskRequest);
     }
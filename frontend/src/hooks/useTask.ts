@@ -18,7 +18,7 @@ export interface UseTaskReturn {
   
   // Acciones CRUD
   createTask: (taskData: TaskRequest) => Promise<Task | null>;
-  updateTask: (taskId: number, updates: TaskUpdateRequest) => Promise<Task | null>;
+  updateTask: (taskId: number, updates: TaskUpdateRequest, version?: number) => Promise<Task | null>;
   deleteTask: (taskId: number) => Promise<boolean>;
   
   // Consultas
@@ -98,14 +98,16 @@ export const useTask = (): UseTaskReturn => {
   }, [handleError]);
 
   // Actualizar tarea
-  const updateTask = useCallback(async (taskId: number, updates: TaskUpdateRequest): Promise<Task | null> => {
+  const updateTask = useCallback(async (taskId: number, updates: TaskUpdateRequest, version?: number): Promise<Task | null> => {
     try {
       setLoading(true);
       setError(null);
       
+      // Con la versión leída, el backend responde 412 si otra pestaña guardó antes
       const response = await apiRequest<Task>(`/tasks/${taskId}`, {
         method: 'PUT',
         body: JSON.stringify(updates),
+        ...(version !== undefined && { headers: { 'If-Match': `"${version}"` } }),
       });
       
       if (response.success && response.data) {
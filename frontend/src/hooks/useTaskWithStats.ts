@@ -28,7 +28,7 @@ export interface UseTaskWithStatsReturn {
   
   // Acciones CRUD que actualizan estadísticas automáticamente
   createTask: (taskData: TaskRequest) => Promise<ReturnType<typeof useTask>['createTask'] extends (...args: any[]) => Promise<infer T> ? T : never>;
-  updateTask: (taskId: number, updates: TaskUpdateRequest) => Promise<ReturnType<typeof useTask>['updateTask'] extends (...args: any[]) => Promise<infer T> ? T : never>;
+  updateTask: (taskId: number, updates: TaskUpdateRequest, version?: number) => Promise<ReturnType<typeof useTask>['updateTask'] extends (...args: any[]) => Promise<infer T> ? T : never>;
   deleteTask: (taskId: number) => Promise<boolean>;
   
   // Función para cargar ambos conjuntos de datos
@@ -50,8 +50,8 @@ export const useTaskWithStats = (): UseTaskWithStatsReturn => {
   }, [taskHook.createTask, statsHook.refreshStats]);
 
   // Wrapper para updateTask que actualiza estadísticas si cambió el estado
-  const updateTask = useCallback(async (taskId: number, updates: TaskUpdateRequest) => {
-    const result = await taskHook.updateTask(taskId, updates);
+  const updateTask = useCallback(async (taskId: number, updates: TaskUpdateRequest, version?: number) => {
+    const result = await taskHook.updateTask(taskId, updates, version);
     if (result && updates.status) {
       // Actualizar estadísticas solo si cambió el estado
       await statsHook.refreshStats();
@@ -36,12 +36,12 @@ class ApiService {
     const config: RequestInit = {
       credentials: 'include',
       mode: 'cors',
+      ...options,
       headers: {
         'Content-Type': 'application/json',
         ...(token && { Authorization: `Bearer ${token}` }),
         ...options.headers,
       },
-      ...options,
     };
 
     try {
@@ -57,6 +57,8 @@ class ApiService {
           errorMessage = 'No tienes permisos para acceder a este recurso';
         } else if (response.status === 404) {
           errorMessage = 'Recurso no encontrado';
+        } else if (response.status === 412) {
+          errorMessage = 'La tarea fue modificada en otra pestaña. Recarga antes de guardar';
         }
         
         const error: ApiError = await response.json().catch(() => ({
@@ -24,6 +24,7 @@ export interface Task {
   completedAt?: string;
   userId: number;
   username: string;
+  version?: number; // Se envía como If-Match al actualizar
 }
 
 export interface TaskRequest {